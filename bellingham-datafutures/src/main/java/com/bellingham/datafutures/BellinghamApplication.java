@@ -1,13 +1,15 @@
 package com.bellingham.datafutures;
 
+import com.bellingham.datafutures.config.ActivityProperties;
 import com.bellingham.datafutures.config.JwtProperties;
+import com.bellingham.datafutures.config.MarketProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(JwtProperties.class)
+@EnableConfigurationProperties({JwtProperties.class, MarketProperties.class, ActivityProperties.class})
 @EnableScheduling
 public class BellinghamApplication {
     public static void main(String[] args) {
@@ -0,0 +1,118 @@
+package com.bellingham.datafutures.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.activity")
+public class ActivityProperties {
+
+    /**
+     * Number of monthly partitions, including the current month, that stay
+     * attached to {@code contract_activity} and visible to contract history.
+     */
+    private int retentionMonths = 24;
+
+    /**
+     * Number of future monthly partitions created ahead of time so inserts
+     * never fall into the default partition.
+     */
+    private int premakeMonths = 2;
+
+    /**
+     * Schema that detached partitions are moved into once they age out.
+     */
+    private String archiveSchema = "activity_archive";
+
+    /**
+     * Optional tablespace for archived partitions, typically placed on
+     * cheaper, compressed storage. Left in place when unset.
+     */
+    private String archiveTablespace;
+
+    /**
+     * Maximum number of activity records waiting to be written. Requests block
+     * for up to {@link #enqueueTimeout} when the queue is full.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of activity records written per batch.
+     */
+    private int batchSize = 50;
+
+    /**
+     * Longest time a queued activity record waits for its batch to fill.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * How long a request waits for queue space before writing its activity
+     * record itself.
+     */
+    private Duration enqueueTimeout = Duration.ofMillis(50);
+
+    public int getRetentionMonths() {
+        return retentionMonths;
+    }
+
+    public void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    public int getPremakeMonths() {
+        return premakeMonths;
+    }
+
+    public void setPremakeMonths(int premakeMonths) {
+        this.premakeMonths = premakeMonths;
+    }
+
+    public String getArchiveSchema() {
+        return archiveSchema;
+    }
+
+    public void setArchiveSchema(String archiveSchema) {
+        this.archiveSchema = archiveSchema;
+    }
+
+    public String getArchiveTablespace() {
+        return archiveTablespace;
+    }
+
+    public void setArchiveTablespace(String archiveTablespace) {
+        this.archiveTablespace = archiveTablespace;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getEnqueueTimeout() {
+        return enqueueTimeout;
+    }
+
+    public void setEnqueueTimeout(Duration enqueueTimeout) {
+        this.enqueueTimeout = enqueueTimeout;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bellingham.datafutures.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "jwt")
@@ -8,6 +10,7 @@ public class JwtProperties {
     private long expirationMs;
     private Rotation rotation = new Rotation();
     private Cookie cookie = new Cookie();
+    private UserCache userCache = new UserCache();
 
     public long getExpirationMs() {
         return expirationMs;
@@ -33,6 +36,14 @@ public class JwtProperties {
         this.cookie = cookie;
     }
 
+    public UserCache getUserCache() {
+        return userCache;
+    }
+
+    public void setUserCache(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
     public static class Rotation {
         private String initialKeyId;
         private String initialSecret;
@@ -92,4 +103,29 @@ public class JwtProperties {
             this.path = path;
         }
     }
+
+    /**
+     * Per-node cache of the user details behind authenticated requests. Local
+     * permission changes evict their entry; other nodes see them after the TTL.
+     */
+    public static class UserCache {
+        private Duration ttl = Duration.ofSeconds(60);
+        private int maxSize = 10_000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
 }
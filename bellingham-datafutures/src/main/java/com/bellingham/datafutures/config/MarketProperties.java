@@ -0,0 +1,52 @@
+package com.bellingham.datafutures.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.market")
+public class MarketProperties {
+
+    /**
+     * Window in which contract mutations are coalesced into a single market
+     * snapshot broadcast. At most one snapshot is emitted per window.
+     */
+    private Duration publishWindow = Duration.ofMillis(150);
+
+    /**
+     * Number of market frames buffered per SSE subscriber. A client that falls
+     * further behind has its queue replaced by a resync marker and reloads
+     * the book; resumes that would replay more frames get a snapshot instead.
+     */
+    private int subscriberQueueCapacity = 4;
+
+    /**
+     * Number of recent market updates kept so reconnecting clients can resume
+     * from their {@code Last-Event-ID} instead of reloading the whole book.
+     */
+    private int replayCapacity = 256;
+
+    public Duration getPublishWindow() {
+        return publishWindow;
+    }
+
+    public void setPublishWindow(Duration publishWindow) {
+        this.publishWindow = publishWindow;
+    }
+
+    public int getSubscriberQueueCapacity() {
+        return subscriberQueueCapacity;
+    }
+
+    public void setSubscriberQueueCapacity(int subscriberQueueCapacity) {
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+    }
+
+    public int getReplayCapacity() {
+        return replayCapacity;
+    }
+
+    public void setReplayCapacity(int replayCapacity) {
+        this.replayCapacity = replayCapacity;
+    }
+}
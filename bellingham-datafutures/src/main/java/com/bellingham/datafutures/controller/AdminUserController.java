@@ -14,15 +14,18 @@ import org.springframework.web.bind.annotation.RestController;
 import com.bellingham.datafutures.controller.dto.UserPermissionUpdateRequest;
 import com.bellingham.datafutures.controller.dto.UserSummaryDto;
 import com.bellingham.datafutures.repository.UserRepository;
+import com.bellingham.datafutures.security.CustomUserDetailsService;
 
 @RestController
 @RequestMapping("/api/admin/users")
 public class AdminUserController {
 
     private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
 
-    public AdminUserController(UserRepository userRepository) {
+    public AdminUserController(UserRepository userRepository, CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     @GetMapping
@@ -39,6 +42,7 @@ public class AdminUserController {
                 .map(user -> {
                     user.setPermissions(request.permissions());
                     userRepository.save(user);
+                    userDetailsService.evict(user.getUsername());
                     return ResponseEntity.ok(UserSummaryDto.fromUser(user));
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -26,7 +26,9 @@ import com.bellingham.datafutures.controller.dto.RegisterRequest;
 import com.bellingham.datafutures.model.User;
 import com.bellingham.datafutures.repository.UserRepository;
 import com.bellingham.datafutures.model.UserPermission;
+import com.bellingham.datafutures.security.CustomUserDetailsService;
 import com.bellingham.datafutures.security.JwtUtil;
+import com.bellingham.datafutures.security.VerifiedToken;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -47,6 +49,9 @@ public class AuthController {
     @Autowired
     private JwtProperties jwtProperties;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -65,7 +70,7 @@ public class AuthController {
                     ));
             String authenticatedUsername = resolveAuthenticatedUsername(auth, creds.getUsername());
             logger.info("Authentication successful for user: {}", authenticatedUsername);
-            String token = jwtUtil.generateToken(authenticatedUsername);
+            String token = jwtUtil.generateToken(userDetailsService.loadCachedUser(authenticatedUsername));
             Instant expiresAt = jwtUtil.extractExpiration(token).toInstant();
 
             ResponseCookie cookie = buildSessionCookie(token, Duration.ofMillis(jwtProperties.getExpirationMs()),
@@ -122,13 +127,14 @@ public class AuthController {
     @GetMapping("/session")
     public ResponseEntity<Map<String, Object>> session(HttpServletRequest request) {
         String token = resolveTokenFromRequest(request);
-        if (token == null || !jwtUtil.validateToken(token)) {
+        VerifiedToken verified = token != null ? jwtUtil.verify(token).orElse(null) : null;
+        if (verified == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of());
         }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("username", jwtUtil.extractUsername(token));
-        response.put("expiresAt", jwtUtil.extractExpiration(token).toInstant().toString());
+        response.put("username", verified.username());
+        response.put("expiresAt", verified.expiresAt().toString());
         return ResponseEntity.ok(response);
     }
 
@@ -1,8 +1,9 @@
 package com.bellingham.datafutures.controller;
 
+import com.bellingham.datafutures.dto.ContractImportResult;
+import com.bellingham.datafutures.dto.ContractPage;
 import com.bellingham.datafutures.dto.DataCategoryApprovalDto;
 import com.bellingham.datafutures.dto.ForwardContractCreateRequest;
-import com.bellingham.datafutures.dto.market.MarketSnapshot;
 import com.bellingham.datafutures.dto.PreTradePolicyDto;
 import com.bellingham.datafutures.dto.PreTradePolicyUpdateRequest;
 import com.bellingham.datafutures.model.ForwardContract;
@@ -15,29 +16,36 @@ import com.bellingham.datafutures.repository.ForwardContractRepository;
 import com.bellingham.datafutures.repository.UserRepository;
 import com.bellingham.datafutures.model.User;
 import com.bellingham.datafutures.model.UserPermission;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.ContractAgreementService;
+import com.bellingham.datafutures.service.ContractImportService;
+import com.bellingham.datafutures.service.ContractLifecycleEvent;
+import com.bellingham.datafutures.service.ContractListingService;
+import com.bellingham.datafutures.service.ContractPurchaseService;
+import com.bellingham.datafutures.service.ContractListingService.Listing;
 import com.bellingham.datafutures.service.MarketDataService;
+import com.bellingham.datafutures.service.PublishedSnapshot;
 import com.bellingham.datafutures.service.MarketDataStreamService;
 import com.bellingham.datafutures.service.NotificationService;
-import com.bellingham.datafutures.service.SavedSearchService;
-import java.time.LocalDateTime;
 import com.bellingham.datafutures.service.PdfService;
 import java.time.LocalDate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.security.core.GrantedAuthority;
 
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -68,35 +76,50 @@ public class ForwardContractController {
     private MarketDataStreamService marketDataStreamService;
 
     @Autowired
-    private SavedSearchService savedSearchService;
+    private ActivityLogService activityLogService;
+
+    @Autowired
+    private ContractListingService contractListingService;
+
+    @Autowired
+    private ContractAgreementService contractAgreementService;
+
+    @Autowired
+    private ContractPurchaseService contractPurchaseService;
+
+    @Autowired
+    private ContractImportService contractImportService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     private void logActivity(ForwardContract contract, String username, String action) {
-        ContractActivity activity = new ContractActivity();
-        activity.setContract(contract);
-        activity.setUsername(username);
-        activity.setAction(action);
-        activity.setTimestamp(LocalDateTime.now());
-        activityRepository.save(activity);
+        activityLogService.record(contract, username, action);
+    }
+
+    private void publishLifecycle(ForwardContract contract, ContractLifecycleEvent.Type type) {
+        eventPublisher.publishEvent(new ContractLifecycleEvent(contract, type));
     }
 
 
     @GetMapping
-    public Page<ForwardContract> getAll(@RequestParam(defaultValue = "0") int page,
-                                        @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return repository.findAll(pageable);
+    public ContractPage getAll(@RequestParam(required = false) String cursor,
+                               @RequestParam(required = false) Integer size,
+                               @RequestParam(required = false) String sort,
+                               @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return contractListingService.list(Listing.ALL, null, cursor, size, sort, includeTotal);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ForwardContract> getById(@PathVariable Long id) {
-        return repository.findById(id)
+        return repository.findDetailById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().<ForwardContract>build());
     }
 
     @GetMapping("/{id}/pdf")
     public ResponseEntity<byte[]> downloadPdf(@PathVariable Long id) {
-        return repository.findById(id)
+        return repository.findDocumentById(id)
                 .map(contract -> {
                     try {
                         byte[] bytes = pdfService.generateContractPdf(contract);
@@ -116,10 +139,45 @@ public class ForwardContractController {
 
     @PostMapping
     public ForwardContract create(@Valid @RequestBody ForwardContractCreateRequest request) {
-        ForwardContract contract = mapToContract(request);
-        contract.setStatus("Available");
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User creator = requireSeller(username);
+
+        ForwardContract contract = newListing(request, username, creator);
+        contract.setAgreement(contractAgreementService.intern(request.getAgreementText()));
 
+        ForwardContract saved = repository.save(contract);
+        logActivity(saved, username, "Created contract");
+        publishLifecycle(saved, ContractLifecycleEvent.Type.CREATED);
+        return saved;
+    }
+
+    /**
+     * Creates one listing per row of an NDJSON upload. Rows are validated
+     * individually; the response reports the ids created and the line and
+     * reason of every row that was rejected.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ContractImportResult importNdjson(InputStream body) {
+        return importContracts(body, ContractImportService.Format.NDJSON);
+    }
+
+    /**
+     * CSV counterpart of {@link #importNdjson(InputStream)}. The header row
+     * names the {@link ForwardContractCreateRequest} fields.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ContractImportResult importCsv(InputStream body) {
+        return importContracts(body, ContractImportService.Format.CSV);
+    }
+
+    private ContractImportResult importContracts(InputStream body, ContractImportService.Format format) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User creator = requireSeller(username);
+        return contractImportService.importContracts(body, format, username,
+                request -> newListing(request, username, creator));
+    }
+
+    private User requireSeller(String username) {
         User creator = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResponseStatusException(org.springframework.http.HttpStatus.FORBIDDEN,
                         "User profile not found"));
@@ -127,14 +185,19 @@ public class ForwardContractController {
             throw new ResponseStatusException(org.springframework.http.HttpStatus.FORBIDDEN,
                     "User does not have permission to sell");
         }
+        return creator;
+    }
+
+    /**
+     * Maps a create request onto an unsaved Available contract owned by
+     * {@code creator}. The agreement is left for the caller to intern.
+     */
+    private ForwardContract newListing(ForwardContractCreateRequest request, String username, User creator) {
+        ForwardContract contract = mapToContract(request);
+        contract.setStatus("Available");
         contract.setCreatorUsername(username);
         fillSellerDetails(contract, creator);
-
-        ForwardContract saved = repository.save(contract);
-        logActivity(saved, username, "Created contract");
-        marketDataService.publishSnapshot();
-        savedSearchService.notifyWatchers(saved);
-        return saved;
+        return contract;
     }
 
     private ForwardContract mapToContract(ForwardContractCreateRequest request) {
@@ -146,7 +209,6 @@ public class ForwardContractController {
         contract.setPlatformName(request.getPlatformName());
         contract.setDataDescription(request.getDataDescription());
         contract.setTermsFileName(request.getTermsFileName());
-        contract.setAgreementText(request.getAgreementText());
         contract.setEffectiveDate(request.getEffectiveDate());
         contract.setSellerFullName(request.getSellerFullName());
         contract.setSellerEntityType(request.getSellerEntityType());
@@ -232,54 +294,68 @@ public class ForwardContractController {
     }
 
     @GetMapping("/available")
-    public Page<ForwardContract> getAvailable(@RequestParam(defaultValue = "0") int page,
-                                              @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return repository.findByStatus("Available", pageable);
+    public ContractPage getAvailable(@RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) String sort,
+                                     @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return contractListingService.list(Listing.AVAILABLE, null, cursor, size, sort, includeTotal);
     }
 
+    /**
+     * Serves the last published snapshot as-is. The ETag changes with every
+     * publish, so clients revalidating with If-None-Match get a 304 until the
+     * market moves.
+     */
     @GetMapping("/market")
-    public MarketSnapshot getMarketSnapshot() {
-        return marketDataService.getSnapshot();
+    public ResponseEntity<String> getMarketSnapshot() {
+        PublishedSnapshot snapshot = marketDataService.getSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.json());
     }
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamMarket() {
+    public SseEmitter streamMarket(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         SseEmitter emitter = marketDataStreamService.subscribe();
-        marketDataService.sendSnapshot(emitter);
+        marketDataService.sendSnapshot(emitter, lastEventId);
         return emitter;
     }
 
     @GetMapping("/purchased")
-    public Page<ForwardContract> getPurchased(@RequestParam(defaultValue = "0") int page,
-                                              @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    public ContractPage getPurchased(@RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer size,
+                                     @RequestParam(required = false) String sort,
+                                     @RequestParam(defaultValue = "false") boolean includeTotal) {
         String username = org.springframework.security.core.context.SecurityContextHolder
                 .getContext().getAuthentication().getName();
-        return repository.findByStatusAndBuyerUsername("Purchased", username, pageable);
+        return contractListingService.list(Listing.PURCHASED, username, cursor, size, sort, includeTotal);
     }
 
     @GetMapping("/my")
-    public Page<ForwardContract> getMyContracts(@RequestParam(defaultValue = "0") int page,
-                                                @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    public ContractPage getMyContracts(@RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer size,
+                                       @RequestParam(required = false) String sort,
+                                       @RequestParam(defaultValue = "false") boolean includeTotal) {
         String username = org.springframework.security.core.context.SecurityContextHolder
                 .getContext().getAuthentication().getName();
-        return repository.findByCreatorUsername(username, pageable);
+        return contractListingService.list(Listing.MY, username, cursor, size, sort, includeTotal);
     }
 
     @GetMapping("/sold")
-    public Page<ForwardContract> getSoldContracts(@RequestParam(defaultValue = "0") int page,
-                                                  @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    public ContractPage getSoldContracts(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size,
+                                         @RequestParam(required = false) String sort,
+                                         @RequestParam(defaultValue = "false") boolean includeTotal) {
         String username = org.springframework.security.core.context.SecurityContextHolder
                 .getContext().getAuthentication().getName();
-        return repository.findByCreatorUsernameAndBuyerUsernameIsNotNull(username, pageable);
+        return contractListingService.list(Listing.SOLD, username, cursor, size, sort, includeTotal);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ForwardContract> update(@PathVariable Long id, @RequestBody ForwardContract updated) {
-        return repository.findById(id)
+        return repository.findDetailById(id)
                 .map(existing -> {
                     String username = SecurityContextHolder.getContext().getAuthentication().getName();
                     if (!username.equals(existing.getCreatorUsername())) {
@@ -294,7 +370,9 @@ public class ForwardContractController {
                     existing.setPlatformName(updated.getPlatformName());
                     existing.setDataDescription(updated.getDataDescription());
                     existing.setTermsFileName(updated.getTermsFileName());
-                    existing.setAgreementText(updated.getAgreementText());
+                    if (!Objects.equals(existing.getAgreementText(), updated.getAgreementText())) {
+                        existing.setAgreement(contractAgreementService.intern(updated.getAgreementText()));
+                    }
                     existing.setEffectiveDate(updated.getEffectiveDate());
                     existing.setSellerFullName(updated.getSellerFullName());
                     existing.setSellerEntityType(updated.getSellerEntityType());
@@ -306,7 +384,7 @@ public class ForwardContractController {
 
                     ForwardContract saved = repository.save(existing);
                     logActivity(saved, username, "Updated contract");
-                    marketDataService.publishSnapshot();
+                    publishLifecycle(saved, ContractLifecycleEvent.Type.UPDATED);
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().<ForwardContract>build());
@@ -319,7 +397,7 @@ public class ForwardContractController {
                     String username = SecurityContextHolder.getContext().getAuthentication().getName();
                     repository.deleteById(id);
                     logActivity(contract, username, "Deleted contract");
-                    marketDataService.publishSnapshot();
+                    publishLifecycle(contract, ContractLifecycleEvent.Type.DELETED);
                     return ResponseEntity.noContent().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -331,8 +409,7 @@ public class ForwardContractController {
         return repository.findById(id)
                 .map(contract -> {
                     if (!"Available".equalsIgnoreCase(contract.getStatus())) {
-                        return ResponseEntity.badRequest().body(
-                                java.util.Map.of("message", "This contract is no longer available for purchase."));
+                        return soldOut();
                     }
                     String username = org.springframework.security.core.context.SecurityContextHolder
                             .getContext().getAuthentication().getName();
@@ -350,15 +427,13 @@ public class ForwardContractController {
                         return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN)
                                 .body(java.util.Map.of("message", "Contract creators cannot purchase their own listings."));
                     }
-                    contract.setStatus("Purchased");
-                    contract.setBuyerUsername(username);
-                    contract.setPurchaseDate(LocalDate.now());
-                    if (signature != null) {
-                        contract.setBuyerSignature(signature.getSignature());
-                    } else {
-                        contract.setBuyerSignature(null);
+                    // Another buyer may have claimed it since the check above.
+                    ForwardContract saved = contractPurchaseService
+                            .purchase(id, username, signature != null ? signature.getSignature() : null)
+                            .orElse(null);
+                    if (saved == null) {
+                        return soldOut();
                     }
-                    ForwardContract saved = repository.save(contract);
                     logActivity(saved, username, "Purchased contract");
 
                     String sellerUsername = contract.getCreatorUsername();
@@ -367,17 +442,22 @@ public class ForwardContractController {
                         notificationService.notifyUser(sellerUsername, msg, contract.getId());
                     }
 
-                    marketDataService.publishSnapshot();
+                    publishLifecycle(saved, ContractLifecycleEvent.Type.PURCHASED);
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.status(org.springframework.http.HttpStatus.NOT_FOUND)
                         .body(java.util.Map.of("message", "Contract not found.")));
     }
 
+    private static ResponseEntity<?> soldOut() {
+        return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT)
+                .body(java.util.Map.of("message", "This contract is no longer available for purchase."));
+    }
+
     @PatchMapping("/{id}/pre-trade-policy")
     public ResponseEntity<ForwardContract> updatePreTradePolicy(@PathVariable Long id,
                                                                 @RequestBody PreTradePolicyUpdateRequest request) {
-        return repository.findById(id)
+        return repository.findDetailById(id)
                 .map(contract -> {
                     String username = SecurityContextHolder.getContext().getAuthentication().getName();
                     Collection<? extends GrantedAuthority> authorities = SecurityContextHolder.getContext()
@@ -428,6 +508,7 @@ public class ForwardContractController {
 
                     ForwardContract saved = repository.save(contract);
                     logActivity(saved, username, "Updated pre-trade policy");
+                    publishLifecycle(saved, ContractLifecycleEvent.Type.UPDATED);
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().<ForwardContract>build());
@@ -436,7 +517,7 @@ public class ForwardContractController {
     @PostMapping("/{id}/list")
     public ResponseEntity<ForwardContract> listForSale(@PathVariable Long id,
                                                        @RequestBody(required = false) java.util.Map<String, Object> body) {
-        return repository.findById(id)
+        return repository.findDetailById(id)
                 .map(contract -> {
                     String username = SecurityContextHolder.getContext().getAuthentication().getName();
                     User seller = userRepository.findByUsername(username)
@@ -464,8 +545,7 @@ public class ForwardContractController {
                     }
                     ForwardContract saved = repository.save(contract);
                     logActivity(saved, username, "Listed for sale");
-                    marketDataService.publishSnapshot();
-                    savedSearchService.notifyWatchers(saved);
+                    publishLifecycle(saved, ContractLifecycleEvent.Type.LISTED);
                     return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().<ForwardContract>build());
@@ -473,7 +553,7 @@ public class ForwardContractController {
 
     @PostMapping("/{id}/closeout")
     public ResponseEntity<ForwardContract> closeOut(@PathVariable Long id) {
-        return repository.findById(id)
+        return repository.findDetailById(id)
                 .map(contract -> {
                     String username = SecurityContextHolder.getContext().getAuthentication().getName();
                     String buyer = contract.getBuyerUsername();
@@ -485,7 +565,7 @@ public class ForwardContractController {
                         contract.setPurchaseDate(null);
                         ForwardContract saved = repository.save(contract);
                         logActivity(saved, username, "Closed contract");
-                        marketDataService.publishSnapshot();
+                        publishLifecycle(saved, ContractLifecycleEvent.Type.CLOSED);
                         return ResponseEntity.ok(saved);
                     }
                     return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN)
@@ -495,16 +575,12 @@ public class ForwardContractController {
     }
 
     @GetMapping("/history")
-    public Page<ForwardContract> getHistory(@RequestParam(defaultValue = "0") int page,
-                                            @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
+    public ContractPage getHistory(@RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer size,
+                                   @RequestParam(required = false) String sort,
+                                   @RequestParam(defaultValue = "false") boolean includeTotal) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return repository.findByStatusAndBuyerUsernameOrStatusAndCreatorUsername(
-                "Closed",
-                username,
-                "Closed",
-                username,
-                pageable);
+        return contractListingService.list(Listing.HISTORY, username, cursor, size, sort, includeTotal);
     }
 
     @GetMapping("/{id}/history")
@@ -1,6 +1,6 @@
 package com.bellingham.datafutures.controller;
 
-import com.bellingham.datafutures.model.Notification;
+import com.bellingham.datafutures.dto.NotificationPage;
 import com.bellingham.datafutures.service.NotificationService;
 import com.bellingham.datafutures.service.NotificationStreamService;
 import org.springframework.security.core.Authentication;
@@ -11,7 +11,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -27,9 +27,21 @@ public class NotificationController {
     }
 
     @GetMapping
-    public List<Notification> getNotifications(Authentication authentication) {
+    public NotificationPage getNotifications(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
         String username = resolveUsername(authentication);
-        return notificationService.getNotifications(username);
+        return notificationService.getNotifications(username, cursor, limit);
+    }
+
+    @GetMapping("/unread-count")
+    public Map<String, Long> getUnreadCount(Authentication authentication) {
+        return Map.of("unreadCount", notificationService.getUnreadCount(resolveUsername(authentication)));
+    }
+
+    @PostMapping("/read-all")
+    public Map<String, Integer> markAllRead(Authentication authentication) {
+        return Map.of("updated", notificationService.markAllRead(resolveUsername(authentication)));
     }
 
     @PostMapping("/{id}/read")
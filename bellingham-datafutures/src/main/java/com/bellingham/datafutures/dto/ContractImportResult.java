@@ -0,0 +1,16 @@
+package com.bellingham.datafutures.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk listing import: how many rows were read, the ids of the
+ * contracts created, and why each rejected row was rejected.
+ */
+public record ContractImportResult(int received, int imported, List<Long> createdIds, List<RowError> errors) {
+
+    /**
+     * @param line line of the upload the row starts on
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.bellingham.datafutures.dto;
+
+import com.bellingham.datafutures.model.ForwardContract;
+
+import java.util.List;
+
+/**
+ * One keyset page of contracts. {@code nextCursor} is {@code null} on the last
+ * page and {@code totalElements} is only filled in when the caller asked for it.
+ */
+public record ContractPage(List<ForwardContract> content, String nextCursor, Long totalElements) {
+}
@@ -0,0 +1,13 @@
+package com.bellingham.datafutures.dto;
+
+import com.bellingham.datafutures.model.Notification;
+
+import java.util.List;
+
+/**
+ * One page of a user's notifications, newest first. {@code nextCursor} is
+ * passed back as {@code cursor} to fetch the following page and is
+ * {@code null} on the last page.
+ */
+public record NotificationPage(List<Notification> notifications, String nextCursor) {
+}
@@ -0,0 +1,15 @@
+package com.bellingham.datafutures.dto.market;
+
+import java.math.BigDecimal;
+
+/**
+ * Book-wide KPI inputs aggregated by the database. {@code bestAsk} and
+ * {@code tailAsk} are {@code null} when no listed contract has a price.
+ */
+public record MarketAggregate(
+        long openContracts,
+        BigDecimal totalVolume,
+        long activeSellers,
+        BigDecimal bestAsk,
+        BigDecimal tailAsk) {
+}
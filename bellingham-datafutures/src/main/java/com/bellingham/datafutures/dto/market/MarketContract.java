@@ -0,0 +1,34 @@
+package com.bellingham.datafutures.dto.market;
+
+import com.bellingham.datafutures.model.ForwardContract;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Order book row published to market subscribers. Carries only the narrow
+ * listing columns so snapshots never load or serialize agreement text,
+ * signatures, contact details or the contract's element collections.
+ */
+public record MarketContract(
+        Long id,
+        String title,
+        String seller,
+        BigDecimal price,
+        LocalDate deliveryDate,
+        String deliveryFormat,
+        String sellerEntityType,
+        String status) {
+
+    public static MarketContract from(ForwardContract contract) {
+        return new MarketContract(
+                contract.getId(),
+                contract.getTitle(),
+                contract.getSeller(),
+                contract.getPrice(),
+                contract.getDeliveryDate(),
+                contract.getDeliveryFormat(),
+                contract.getSellerEntityType(),
+                contract.getStatus());
+    }
+}
@@ -1,22 +1,21 @@
 package com.bellingham.datafutures.dto.market;
 
-import com.bellingham.datafutures.model.ForwardContract;
-
 import java.time.Instant;
 import java.util.List;
 
 public class MarketSnapshot {
 
-    private List<ForwardContract> contracts;
+    private List<MarketContract> contracts;
     private MarketKpis kpis;
     private MarketDelta delta;
     private Instant generatedAt;
+    private long sequence;
 
-    public List<ForwardContract> getContracts() {
+    public List<MarketContract> getContracts() {
         return contracts;
     }
 
-    public void setContracts(List<ForwardContract> contracts) {
+    public void setContracts(List<MarketContract> contracts) {
         this.contracts = contracts;
     }
 
@@ -43,4 +42,12 @@ public class MarketSnapshot {
     public void setGeneratedAt(Instant generatedAt) {
         this.generatedAt = generatedAt;
     }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
 }
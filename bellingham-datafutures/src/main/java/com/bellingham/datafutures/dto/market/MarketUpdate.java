@@ -0,0 +1,76 @@
+package com.bellingham.datafutures.dto.market;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Incremental change to the published order book. Each update carries the
+ * sequence number it advances the book to; clients apply updates in order on
+ * top of the last {@link MarketSnapshot} they received.
+ */
+public class MarketUpdate {
+
+    private long sequence;
+    private List<MarketContract> inserted;
+    private List<MarketContract> updated;
+    private List<Long> removed;
+    private MarketKpis kpis;
+    private MarketDelta delta;
+    private Instant generatedAt;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public List<MarketContract> getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(List<MarketContract> inserted) {
+        this.inserted = inserted;
+    }
+
+    public List<MarketContract> getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(List<MarketContract> updated) {
+        this.updated = updated;
+    }
+
+    public List<Long> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<Long> removed) {
+        this.removed = removed;
+    }
+
+    public MarketKpis getKpis() {
+        return kpis;
+    }
+
+    public void setKpis(MarketKpis kpis) {
+        this.kpis = kpis;
+    }
+
+    public MarketDelta getDelta() {
+        return delta;
+    }
+
+    public void setDelta(MarketDelta delta) {
+        this.delta = delta;
+    }
+
+    public Instant getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(Instant generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
@@ -4,11 +4,15 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "contract_activity")
+@Table(name = "contract_activity", indexes = {
+        @Index(name = "idx_activity_contract_timestamp", columnList = "contract_id, timestamp"),
+        @Index(name = "idx_activity_action_timestamp", columnList = "action, timestamp")
+})
 public class ContractActivity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contract_activity_id")
+    @SequenceGenerator(name = "contract_activity_id", sequenceName = "contract_activity_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
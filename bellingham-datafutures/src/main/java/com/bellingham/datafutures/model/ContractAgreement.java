@@ -0,0 +1,59 @@
+package com.bellingham.datafutures.model;
+
+import jakarta.persistence.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Agreement text kept out of the {@code forward_contract} row. Rows are
+ * addressed by the SHA-256 of their content so contracts created from the
+ * same template share one copy.
+ */
+@Entity
+@Table(name = "contract_agreement", indexes = {
+        @Index(name = "idx_agreement_content_hash", columnList = "contentHash")
+})
+public class ContractAgreement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String contentHash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    protected ContractAgreement() {
+    }
+
+    public ContractAgreement(String content) {
+        this.content = content;
+        this.contentHash = hash(content);
+    }
+
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bellingham.datafutures.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Seller and buyer signature images of one contract, stored beside the
+ * {@code forward_contract} row so listing queries do not read them.
+ */
+@Entity
+@Table(name = "contract_signatures")
+public class ContractSignatures {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contract_signatures_id")
+    @SequenceGenerator(name = "contract_signatures_id", sequenceName = "contract_signatures_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(columnDefinition = "TEXT")
+    private String sellerSignature;
+
+    @Column(columnDefinition = "TEXT")
+    private String buyerSignature;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSellerSignature() {
+        return sellerSignature;
+    }
+
+    public void setSellerSignature(String sellerSignature) {
+        this.sellerSignature = sellerSignature;
+    }
+
+    public String getBuyerSignature() {
+        return buyerSignature;
+    }
+
+    public void setBuyerSignature(String buyerSignature) {
+        this.buyerSignature = buyerSignature;
+    }
+}
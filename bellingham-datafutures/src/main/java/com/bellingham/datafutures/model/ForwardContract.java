@@ -1,22 +1,34 @@
 package com.bellingham.datafutures.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(indexes = {
-        @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_buyer_username", columnList = "buyerUsername"),
+        @Index(name = "idx_status_price_id", columnList = "status, price, id"),
+        @Index(name = "idx_status_delivery_date_id", columnList = "status, deliveryDate, id"),
+        @Index(name = "idx_buyer_username_status_id", columnList = "buyerUsername, status, id"),
+        @Index(name = "idx_creator_username_id", columnList = "creatorUsername, id"),
+        @Index(name = "idx_creator_username_status_id", columnList = "creatorUsername, status, id"),
         @Index(name = "idx_delivery_date", columnList = "deliveryDate")
 })
 public class ForwardContract {
 
+    private static final List<String> STATUSES = List.of("Available", "Purchased", "Closed", "Void", "Delivered");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "forward_contract_id")
+    @SequenceGenerator(name = "forward_contract_id", sequenceName = "forward_contract_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -27,8 +39,19 @@ public class ForwardContract {
     private String platformName;
     private String dataDescription;
     private String termsFileName;
-    @Column(columnDefinition = "TEXT")
-    private String agreementText;
+
+    // Agreement text and signatures live in side tables and are only loaded
+    // by the detail and PDF fetch plans; see ForwardContractRepository.
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "agreement_id")
+    private ContractAgreement agreement;
+
+    @JsonIgnore
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "signatures_id")
+    private ContractSignatures signatures;
+
     private java.time.LocalDate effectiveDate;
     private String sellerFullName;
     private String sellerEntityType;
@@ -58,11 +81,16 @@ public class ForwardContract {
 
     private LocalDateTime amlAttestedAt;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Loaded on demand; list views initialise a whole page of these with one
+    // batched select, and single-contract views fetch them with the entity
+    // through ForwardContractRepository#findDetailById.
+    @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "forward_contract_data_category_approvals", joinColumns = @JoinColumn(name = "contract_id"))
     private Set<DataCategoryApproval> dataCategoryApprovals = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "forward_contract_required_roles", joinColumns = @JoinColumn(name = "contract_id"))
     @Column(name = "role_name")
     private Set<String> requiredClearanceRoles = new HashSet<>();
@@ -80,12 +108,6 @@ public class ForwardContract {
     private String technicalContactPhone;
     private String companyDescription;
 
-    @Lob
-    private String sellerSignature;
-
-    @Lob
-    private String buyerSignature;
-
     // Getters and setters
 
     public Long getId() {
@@ -160,12 +182,24 @@ public class ForwardContract {
         this.termsFileName = termsFileName;
     }
 
+    @JsonIgnore
     public String getAgreementText() {
-        return agreementText;
+        return agreement != null ? agreement.getContent() : null;
     }
 
+    /**
+     * Holds agreement text that has not been stored yet, as when a contract is
+     * read from a request body. Such a contract cannot be saved until the
+     * text is stored through {@code ContractAgreementService#intern} and set
+     * with {@link #setAgreement}.
+     */
+    @JsonProperty("agreementText")
     public void setAgreementText(String agreementText) {
-        this.agreementText = agreementText;
+        if (agreementText == null) {
+            this.agreement = null;
+        } else if (agreement == null || !agreementText.equals(agreement.getContent())) {
+            this.agreement = new ContractAgreement(agreementText);
+        }
     }
 
     public java.time.LocalDate getEffectiveDate() {
@@ -229,7 +263,25 @@ public class ForwardContract {
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = normalizeStatus(status);
+    }
+
+    /**
+     * Folds known statuses onto their stored spelling. Queries compare status
+     * exactly so the status indexes apply, which only works if every writer
+     * uses the same case.
+     */
+    public static String normalizeStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        String trimmed = status.trim();
+        for (String known : STATUSES) {
+            if (known.equalsIgnoreCase(trimmed)) {
+                return known;
+            }
+        }
+        return trimmed;
     }
 
     public String getBuyerUsername() {
@@ -441,19 +493,66 @@ public class ForwardContract {
         this.companyDescription = companyDescription;
     }
 
+    @JsonIgnore
+    public ContractAgreement getAgreement() {
+        return agreement;
+    }
+
+    public void setAgreement(ContractAgreement agreement) {
+        this.agreement = agreement;
+    }
+
+    @JsonIgnore
     public String getSellerSignature() {
-        return sellerSignature;
+        return signatures != null ? signatures.getSellerSignature() : null;
     }
 
+    @JsonProperty("sellerSignature")
     public void setSellerSignature(String sellerSignature) {
-        this.sellerSignature = sellerSignature;
+        if (signatures == null && sellerSignature == null) {
+            return;
+        }
+        signatures().setSellerSignature(sellerSignature);
     }
 
+    @JsonIgnore
     public String getBuyerSignature() {
-        return buyerSignature;
+        return signatures != null ? signatures.getBuyerSignature() : null;
     }
 
+    @JsonProperty("buyerSignature")
     public void setBuyerSignature(String buyerSignature) {
-        this.buyerSignature = buyerSignature;
+        if (signatures == null && buyerSignature == null) {
+            return;
+        }
+        signatures().setBuyerSignature(buyerSignature);
+    }
+
+    private ContractSignatures signatures() {
+        if (signatures == null) {
+            signatures = new ContractSignatures();
+        }
+        return signatures;
+    }
+
+    // The JSON form carries the side-table values only when they were loaded,
+    // so serialising a list page never pulls them in.
+
+    @JsonProperty("agreementText")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String loadedAgreementText() {
+        return Hibernate.isInitialized(agreement) ? getAgreementText() : null;
+    }
+
+    @JsonProperty("sellerSignature")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String loadedSellerSignature() {
+        return Hibernate.isInitialized(signatures) ? getSellerSignature() : null;
+    }
+
+    @JsonProperty("buyerSignature")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String loadedBuyerSignature() {
+        return Hibernate.isInitialized(signatures) ? getBuyerSignature() : null;
     }
 }
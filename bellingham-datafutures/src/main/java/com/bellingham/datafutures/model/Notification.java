@@ -4,9 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_notification_username_timestamp_id", columnList = "username, timestamp, id"),
+        @Index(name = "idx_notification_username_read", columnList = "username, readFlag")
+})
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_id")
+    @SequenceGenerator(name = "notification_id", sequenceName = "notification_seq", allocationSize = 50)
     private Long id;
 
     private String username;
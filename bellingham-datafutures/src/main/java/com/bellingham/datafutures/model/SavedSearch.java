@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 public class SavedSearch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saved_search_id")
+    @SequenceGenerator(name = "saved_search_id", sequenceName = "saved_searches_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 80)
@@ -1,6 +1,7 @@
 package com.bellingham.datafutures.model;
 
 import java.util.EnumSet;
+import java.util.Objects;
 import java.util.Set;
 
 import jakarta.persistence.*;
@@ -23,6 +24,11 @@ public class User {
     @Column(name = "permission")
     private Set<UserPermission> permissions = EnumSet.noneOf(UserPermission.class);
 
+    // Bumped whenever the role or permissions change; tokens carry the value
+    // they were issued with so stale authorities can be spotted.
+    @Column(name = "permissions_version")
+    private Long permissionsVersion = 0L;
+
     private String legalBusinessName;
     private String name;
     private String countryOfIncorporation;
@@ -67,6 +73,9 @@ public class User {
     }
 
     public void setRole(String role) {
+        if (!Objects.equals(this.role, role)) {
+            bumpPermissionsVersion();
+        }
         this.role = role;
     }
 
@@ -78,6 +87,7 @@ public class User {
     }
 
     public void setPermissions(Set<UserPermission> permissions) {
+        Set<UserPermission> previous = getPermissions();
         if (permissions == null) {
             this.permissions = EnumSet.noneOf(UserPermission.class);
         } else if (permissions.isEmpty()) {
@@ -85,6 +95,17 @@ public class User {
         } else {
             this.permissions = EnumSet.copyOf(permissions);
         }
+        if (!previous.equals(this.permissions)) {
+            bumpPermissionsVersion();
+        }
+    }
+
+    public long getPermissionsVersion() {
+        return permissionsVersion != null ? permissionsVersion : 0L;
+    }
+
+    private void bumpPermissionsVersion() {
+        permissionsVersion = getPermissionsVersion() + 1;
     }
 
     public boolean hasPermission(UserPermission permission) {
@@ -3,6 +3,8 @@ package com.bellingham.datafutures.repository;
 import com.bellingham.datafutures.model.ContractActivity;
 import com.bellingham.datafutures.model.ForwardContract;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -12,5 +14,8 @@ import java.util.List;
 public interface ContractActivityRepository extends JpaRepository<ContractActivity, Long> {
     List<ContractActivity> findByContractOrderByTimestampAsc(ForwardContract contract);
 
-    long countByActionAndTimestampAfter(String action, LocalDateTime timestamp);
+    @Query("select a.timestamp from ContractActivity a where a.action = :action and a.timestamp > :after")
+    List<LocalDateTime> findTimestampsByActionAndTimestampAfter(
+            @Param("action") String action,
+            @Param("after") LocalDateTime after);
 }
@@ -0,0 +1,11 @@
+package com.bellingham.datafutures.repository;
+
+import com.bellingham.datafutures.model.ContractAgreement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ContractAgreementRepository extends JpaRepository<ContractAgreement, Long> {
+
+    Optional<ContractAgreement> findFirstByContentHashOrderByIdAsc(String contentHash);
+}
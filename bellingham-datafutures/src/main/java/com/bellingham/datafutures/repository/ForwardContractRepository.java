@@ -1,40 +1,115 @@
 package com.bellingham.datafutures.repository;
 
+import com.bellingham.datafutures.dto.market.MarketAggregate;
+import com.bellingham.datafutures.dto.market.MarketContract;
 import com.bellingham.datafutures.model.ForwardContract;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ForwardContractRepository extends JpaRepository<ForwardContract, Long> {
-    Page<ForwardContract> findByStatus(String status, Pageable pageable);
-    Page<ForwardContract> findByStatusAndBuyerUsername(String status, String buyerUsername, Pageable pageable);
+public interface ForwardContractRepository extends JpaRepository<ForwardContract, Long>,
+        JpaSpecificationExecutor<ForwardContract> {
     List<ForwardContract> findByBuyerUsername(String buyerUsername);
-    Page<ForwardContract> findByCreatorUsername(String creatorUsername, Pageable pageable);
 
-    Page<ForwardContract> findByCreatorUsernameAndBuyerUsernameIsNotNull(String creatorUsername, Pageable pageable);
+    /**
+     * Loads a contract together with its clearance roles, data category
+     * approvals, agreement text and signatures, for endpoints that return or
+     * modify the whole contract. {@link #findById} leaves all of them unloaded.
+     */
+    @EntityGraph(attributePaths = {"dataCategoryApprovals", "requiredClearanceRoles", "agreement", "signatures"})
+    Optional<ForwardContract> findDetailById(Long id);
 
-    Page<ForwardContract> findByStatusAndBuyerUsernameOrStatusAndCreatorUsername(
-            String status1,
-            String buyerUsername,
-            String status2,
-            String creatorUsername,
-            Pageable pageable);
+    /**
+     * Loads a contract with its agreement text, which is all the PDF needs
+     * beyond the contract row.
+     */
+    @EntityGraph(attributePaths = {"agreement"})
+    Optional<ForwardContract> findDocumentById(Long id);
 
+    @Query(
+            "select new com.bellingham.datafutures.dto.market.MarketContract("
+                    + "c.id, c.title, c.seller, c.price, c.deliveryDate, c.deliveryFormat, c.sellerEntityType, c.status) "
+                    + "from ForwardContract c where c.status = :status")
+    List<MarketContract> findMarketRowsByStatus(@Param("status") String status);
+
+    /**
+     * Aggregates the KPI inputs for every contract in {@code status}; the tail
+     * ask is the highest of the {@code depth} cheapest priced contracts.
+     */
+    @Query(
+            "select new com.bellingham.datafutures.dto.market.MarketAggregate("
+                    + "count(c), coalesce(sum(c.price), 0), count(distinct nullif(trim(c.seller), '')), min(c.price), "
+                    + "(select max(t.price) from ("
+                    + "select p.price as price from ForwardContract p "
+                    + "where p.status = :status and p.price is not null "
+                    + "order by p.price limit :depth) t)) "
+                    + "from ForwardContract c where c.status = :status")
+    MarketAggregate aggregateMarket(@Param("status") String status, @Param("depth") int depth);
+
+    /**
+     * Moves an available contract to {@code Purchased} for the buyer in one
+     * statement; returns 0 when it was no longer available.
+     */
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(
             "update ForwardContract c "
-                    + "set c.status = :newStatus "
-                    + "where c.deliveryDate < :cutoff and lower(c.status) = lower(:currentStatus)")
-    int updateStatusForExpiredContracts(
+                    + "set c.status = 'Purchased', c.buyerUsername = :buyer, c.purchaseDate = :purchaseDate "
+                    + "where c.id = :id and c.status = 'Available'")
+    int markPurchased(
+            @Param("id") Long id,
+            @Param("buyer") String buyerUsername,
+            @Param("purchaseDate") LocalDate purchaseDate);
+
+    /**
+     * First chunk of contracts in {@code status} delivered before
+     * {@code cutoff}, read in {@code (deliveryDate, id)} order from the
+     * {@code (status, deliveryDate, id)} index and locked until the caller's
+     * transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ForwardContract c "
+            + "where c.status = :status and c.deliveryDate < :cutoff "
+            + "order by c.deliveryDate, c.id")
+    List<ForwardContract> findExpiredChunk(
+            @Param("status") String status,
             @Param("cutoff") LocalDate cutoff,
+            Limit limit);
+
+    /**
+     * The chunk of {@link #findExpiredChunk} that follows the contract
+     * {@code (afterDeliveryDate, afterId)}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ForwardContract c "
+            + "where c.status = :status and c.deliveryDate < :cutoff "
+            + "and (c.deliveryDate > :afterDeliveryDate "
+            + "or (c.deliveryDate = :afterDeliveryDate and c.id > :afterId)) "
+            + "order by c.deliveryDate, c.id")
+    List<ForwardContract> findExpiredChunkAfter(
+            @Param("status") String status,
+            @Param("cutoff") LocalDate cutoff,
+            @Param("afterDeliveryDate") LocalDate afterDeliveryDate,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update ForwardContract c set c.status = :newStatus "
+            + "where c.id in :ids and c.status = :currentStatus")
+    int updateStatus(
+            @Param("ids") Collection<Long> ids,
             @Param("currentStatus") String currentStatus,
             @Param("newStatus") String newStatus);
 }
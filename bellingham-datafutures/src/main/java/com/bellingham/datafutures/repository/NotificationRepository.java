@@ -1,12 +1,40 @@
 package com.bellingham.datafutures.repository;
 
 import com.bellingham.datafutures.model.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUsernameOrderByTimestampDesc(String username);
+
+    List<Notification> findByUsernameOrderByTimestampDescIdDesc(String username, Limit limit);
+
+    @Query("select n from Notification n "
+            + "where n.username = :username "
+            + "and (n.timestamp < :timestamp or (n.timestamp = :timestamp and n.id < :id)) "
+            + "order by n.timestamp desc, n.id desc")
+    List<Notification> findPageBefore(
+            @Param("username") String username,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("id") Long id,
+            Limit limit);
+
+    long countByUsernameAndReadFlagFalse(String username);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Notification n set n.readFlag = true "
+            + "where n.id = :id and n.username = :username and n.readFlag = false")
+    int markRead(@Param("id") Long id, @Param("username") String username);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Notification n set n.readFlag = true where n.username = :username and n.readFlag = false")
+    int markAllRead(@Param("username") String username);
 }
@@ -2,11 +2,15 @@ package com.bellingham.datafutures.repository;
 
 import com.bellingham.datafutures.model.SavedSearch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
 
     List<SavedSearch> findByUsernameOrderByCreatedAtAsc(String username);
+
+    @Query("select s.id from SavedSearch s")
+    List<Long> findAllIds();
 }
 
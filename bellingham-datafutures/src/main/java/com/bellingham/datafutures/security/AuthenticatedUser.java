@@ -0,0 +1,49 @@
+package com.bellingham.datafutures.security;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import com.bellingham.datafutures.model.UserPermission;
+
+/**
+ * Security principal carrying the user's platform permissions and the
+ * permissions version they were read at, alongside the role authority.
+ */
+public class AuthenticatedUser extends User {
+
+    private final String role;
+    private final Set<UserPermission> permissions;
+    private final long permissionsVersion;
+
+    public AuthenticatedUser(String username, String password, String role,
+                             Set<UserPermission> permissions, long permissionsVersion) {
+        super(username, password != null ? password : "", !permissions.isEmpty(), true, true, true,
+                Collections.singletonList(new SimpleGrantedAuthority(role)));
+        this.role = role;
+        this.permissions = permissions.isEmpty()
+                ? Collections.unmodifiableSet(EnumSet.noneOf(UserPermission.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(permissions));
+        this.permissionsVersion = permissionsVersion;
+    }
+
+    public static AuthenticatedUser from(com.bellingham.datafutures.model.User user) {
+        return new AuthenticatedUser(user.getUsername(), user.getPassword(), user.getRole(),
+                user.getPermissions(), user.getPermissionsVersion());
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Set<UserPermission> getPermissions() {
+        return permissions;
+    }
+
+    public long getPermissionsVersion() {
+        return permissionsVersion;
+    }
+}
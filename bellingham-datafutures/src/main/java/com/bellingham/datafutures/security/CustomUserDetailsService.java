@@ -1,38 +1,85 @@
 package com.bellingham.datafutures.security;
 
-import java.util.Collections;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
+import com.bellingham.datafutures.config.JwtProperties;
 import com.bellingham.datafutures.model.User;
 import com.bellingham.datafutures.repository.UserRepository;
 
+/**
+ * Loads users for login and for authenticated requests. Login always reads
+ * the table; requests are served from a short-lived cache so the steady-state
+ * path does not query the user table. Call {@link #evict(String)} after
+ * changing a user's role or permissions.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
+    private final UserRepository userRepository;
+    private final JwtProperties.UserCache cacheProperties;
+    private final Clock clock;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
     @Autowired
-    private UserRepository userRepository;
+    public CustomUserDetailsService(UserRepository userRepository, JwtProperties jwtProperties) {
+        this(userRepository, jwtProperties, Clock.systemUTC());
+    }
+
+    CustomUserDetailsService(UserRepository userRepository, JwtProperties jwtProperties, Clock clock) {
+        this.userRepository = userRepository;
+        this.cacheProperties = jwtProperties.getUserCache();
+        this.clock = clock;
+    }
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Looking up user: {}", username);
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         logger.debug("Loaded user: {}", user.getUsername());
-        boolean disabled = user.getPermissions().isEmpty();
+        AuthenticatedUser details = AuthenticatedUser.from(user);
+        // Cache a copy: the login flow erases the password on the returned one.
+        remember(username, AuthenticatedUser.from(user));
+        return details;
+    }
 
-        return org.springframework.security.core.userdetails.User.withUsername(user.getUsername())
-                .password(user.getPassword())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority(user.getRole())))
-                .disabled(disabled)
-                .build();
+    /**
+     * Returns the user's current details, from the cache while the entry is
+     * younger than {@code jwt.user-cache.ttl}.
+     */
+    public AuthenticatedUser loadCachedUser(String username) throws UsernameNotFoundException {
+        CachedUser cached = cache.get(username);
+        if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+            return cached.user();
+        }
+        return loadUserByUsername(username);
     }
-}
 
+    public void evict(String username) {
+        cache.remove(username);
+    }
+
+    private void remember(String username, AuthenticatedUser user) {
+        Instant now = clock.instant();
+        if (cache.size() >= cacheProperties.getMaxSize()) {
+            cache.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+            if (cache.size() >= cacheProperties.getMaxSize()) {
+                cache.clear();
+            }
+        }
+        cache.put(username, new CachedUser(user, now.plus(cacheProperties.getTtl())));
+    }
+
+    private record CachedUser(AuthenticatedUser user, Instant expiresAt) {}
+}
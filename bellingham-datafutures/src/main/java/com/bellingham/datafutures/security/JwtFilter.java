@@ -7,7 +7,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -31,43 +30,38 @@ public class JwtFilter extends OncePerRequestFilter {
 
         String header = request.getHeader("Authorization");
         String token = resolveTokenFromCookies(request.getCookies());
-        String username = null;
 
         if (token == null && header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
         }
 
+        VerifiedToken verified = null;
         if (token != null) {
-            try {
-                if (jwtUtil.validateToken(token)) {
-                    username = jwtUtil.extractUsername(token);
-                } else {
-                    logger.warn("Token validation failed for request URI: {}", request.getRequestURI());
-                }
-            } catch (Exception e) {
-                logger.error("Error parsing JWT for request URI: {}", request.getRequestURI(), e);
+            verified = jwtUtil.verify(token).orElse(null);
+            if (verified == null) {
+                logger.warn("Token validation failed for request URI: {}", request.getRequestURI());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(token)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // The cached entry only supplies the current permissions version;
+            // authorities come from the token unless it predates a change.
+            AuthenticatedUser current = userDetailsService.loadCachedUser(verified.username());
+            UserDetails userDetails = verified.isCurrentFor(current) ? verified.toPrincipal() : current;
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
     private final JwtProperties jwtProperties;
 
-    public JwtFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, JwtProperties jwtProperties) {
+    public JwtFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService, JwtProperties jwtProperties) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
         this.jwtProperties = jwtProperties;
@@ -6,15 +6,29 @@ import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Owns the JWT signing keys. Verification and signing are served from an
+ * immutable in-memory key ring of pre-built keys, so authenticating a request
+ * never touches the database. The ring is rebuilt after every local rotation or
+ * revocation commits, and polled on {@code jwt.rotation.refresh-interval} to
+ * pick up changes made by other nodes.
+ */
 @Service
 public class JwtKeyService {
 
     private final JwtSigningKeyRepository repository;
     private final JwtProperties properties;
+    private volatile KeyRing keyRing = KeyRing.EMPTY;
 
     public JwtKeyService(JwtSigningKeyRepository repository, JwtProperties properties) {
         this.repository = repository;
@@ -23,9 +37,11 @@ public class JwtKeyService {
 
     @Transactional
     public JwtSigningKey ensureActiveKey() {
-        return repository
+        JwtSigningKey active = repository
                 .findByActiveTrue()
                 .orElseGet(() -> createInitialKey(properties.getRotation().getInitialKeyId(), properties.getRotation().getInitialSecret()));
+        refreshAfterCommit();
+        return active;
     }
 
     @Transactional
@@ -43,7 +59,9 @@ public class JwtKeyService {
         repository.save(current);
 
         JwtSigningKey newKey = new JwtSigningKey(keyId, secret, true, Instant.now());
-        return repository.save(newKey);
+        JwtSigningKey saved = repository.save(newKey);
+        refreshAfterCommit();
+        return saved;
     }
 
     @Transactional
@@ -55,18 +73,57 @@ public class JwtKeyService {
                     key.setActive(false);
                     repository.save(key);
                 });
+        refreshAfterCommit();
     }
 
     public ActiveSigningKey getActiveSigningKey() {
-        JwtSigningKey active = ensureActiveKey();
-        return new ActiveSigningKey(active.getKeyId(), buildKey(active.getSecret()));
+        ActiveSigningKey active = keyRing.active();
+        if (active == null) {
+            // Only before the initializer has seeded the table.
+            ensureActiveKey();
+            active = keyRing.active();
+            if (active == null) {
+                throw new IllegalStateException("No active JWT signing key present.");
+            }
+        }
+        return active;
     }
 
     public Optional<Key> findVerificationKey(String keyId) {
-        return repository
-                .findByKeyIdAndRevokedAtIsNull(keyId)
-                .map(JwtSigningKey::getSecret)
-                .map(this::buildKey);
+        return Optional.ofNullable(keyRing.verificationKeys().get(keyId));
+    }
+
+    /**
+     * Rebuilds the key ring from the unrevoked keys in the table. Readers keep
+     * using the previous ring until the new one is swapped in whole.
+     */
+    @Scheduled(fixedDelayString = "${jwt.rotation.refresh-interval:30s}",
+            initialDelayString = "${jwt.rotation.refresh-interval:30s}")
+    public void refresh() {
+        List<JwtSigningKey> keys = repository.findByRevokedAtIsNull();
+        Map<String, Key> verificationKeys = new HashMap<>();
+        ActiveSigningKey active = null;
+        for (JwtSigningKey signingKey : keys) {
+            Key key = buildKey(signingKey.getSecret());
+            verificationKeys.put(signingKey.getKeyId(), key);
+            if (signingKey.isActive()) {
+                active = new ActiveSigningKey(signingKey.getKeyId(), key);
+            }
+        }
+        keyRing = new KeyRing(active, Map.copyOf(verificationKeys));
+    }
+
+    private void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
     }
 
     private JwtSigningKey createInitialKey(String keyId, String secret) {
@@ -82,22 +139,17 @@ public class JwtKeyService {
 
     private Key buildKey(String secret) {
         byte[] raw;
-        if (isBase64(secret)) {
+        try {
             raw = Decoders.BASE64.decode(secret);
-        } else {
+        } catch (IllegalArgumentException ex) {
             raw = secret.getBytes(StandardCharsets.UTF_8);
         }
         return Keys.hmacShaKeyFor(raw);
     }
 
-    private boolean isBase64(String value) {
-        try {
-            Decoders.BASE64.decode(value);
-            return true;
-        } catch (IllegalArgumentException ex) {
-            return false;
-        }
-    }
-
     public record ActiveSigningKey(String keyId, Key key) {}
+
+    private record KeyRing(ActiveSigningKey active, Map<String, Key> verificationKeys) {
+        static final KeyRing EMPTY = new KeyRing(null, Map.of());
+    }
 }
@@ -1,5 +1,6 @@
 package com.bellingham.datafutures.security;
 
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -8,4 +9,6 @@ public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, Lo
     Optional<JwtSigningKey> findByActiveTrue();
 
     Optional<JwtSigningKey> findByKeyIdAndRevokedAtIsNull(String keyId);
+
+    List<JwtSigningKey> findByRevokedAtIsNull();
 }
@@ -1,101 +1,180 @@
 package com.bellingham.datafutures.security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.bellingham.datafutures.config.JwtProperties;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.bellingham.datafutures.model.UserPermission;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 
 @Component
 public class JwtUtil {
 
-    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    // Verified tokens remembered so repeat requests skip parsing and the HMAC.
+    static final int VERIFIED_CACHE_SIZE = 10_000;
+
+    static final String ROLE_CLAIM = "role";
+    static final String PERMISSIONS_CLAIM = "perms";
+    static final String PERMISSIONS_VERSION_CLAIM = "pv";
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
     private final JwtProperties jwtProperties;
     private final JwtKeyService jwtKeyService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Clock clock;
+    private final JwtParser parser;
+    // Keyed by the SHA-256 of the token so raw tokens are not kept in memory.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
+    @Autowired
     public JwtUtil(JwtProperties jwtProperties, JwtKeyService jwtKeyService) {
+        this(jwtProperties, jwtKeyService, Clock.systemUTC());
+    }
+
+    JwtUtil(JwtProperties jwtProperties, JwtKeyService jwtKeyService, Clock clock) {
         this.jwtProperties = jwtProperties;
         this.jwtKeyService = jwtKeyService;
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setClock(() -> Date.from(clock.instant()))
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null || keyId.isBlank()) {
+                            throw new JwtException("Missing signing key id");
+                        }
+                        return jwtKeyService.findVerificationKey(keyId)
+                                .orElseThrow(() -> new JwtException("Unknown signing key"));
+                    }
+                })
+                .build();
     }
 
-    public String generateToken(String username) {
+    public String generateToken(AuthenticatedUser user) {
         JwtKeyService.ActiveSigningKey activeSigningKey = jwtKeyService.getActiveSigningKey();
+        long now = clock.millis();
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtProperties.getExpirationMs()))
+                .setSubject(user.getUsername())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(PERMISSIONS_CLAIM, user.getPermissions().stream().map(Enum::name).toList())
+                .claim(PERMISSIONS_VERSION_CLAIM, user.getPermissionsVersion())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtProperties.getExpirationMs()))
                 .setHeaderParam("kid", activeSigningKey.keyId())
                 .signWith(activeSigningKey.key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Checks the token's signature and expiry and returns its claims, or empty
+     * when the token is invalid. A token that has been verified before is
+     * answered from memory until it expires or its signing key is revoked.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (now.isBefore(cached.expiresAt()) && jwtKeyService.findVerificationKey(cached.keyId()).isPresent()) {
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(cacheKey, cached);
+        }
+
+        VerifiedToken verified;
+        try {
+            Jws<Claims> jws = parser.parseClaimsJws(token);
+            Claims claims = jws.getBody();
+            // Expired at exp itself, which the parser still lets through.
+            if (claims.getExpiration() == null || !now.isBefore(claims.getExpiration().toInstant())) {
+                throw new JwtException("Token has no expiry or has expired");
+            }
+            verified = new VerifiedToken(claims.getSubject(), jws.getHeader().getKeyId(),
+                    claims.getExpiration().toInstant(), claims.get(ROLE_CLAIM, String.class),
+                    permissions(claims), permissionsVersion(claims));
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("Invalid JWT", e);
+            return Optional.empty();
+        }
+        remember(cacheKey, verified, now);
+        return Optional.of(verified);
+    }
+
     public String extractUsername(String token) {
-        return parseToken(token)
-                .getBody()
-                .getSubject();
+        return verifyOrThrow(token).username();
     }
 
     public Date extractExpiration(String token) {
-        return parseToken(token)
-                .getBody()
-                .getExpiration();
+        return Date.from(verifyOrThrow(token).expiresAt());
     }
 
     public boolean validateToken(String token) {
-        try {
-            parseToken(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            logger.warn("Invalid JWT", e);
-            return false;
+        return verify(token).isPresent();
+    }
+
+    private VerifiedToken verifyOrThrow(String token) {
+        return verify(token).orElseThrow(() -> new JwtException("Invalid JWT"));
+    }
+
+    private static Set<UserPermission> permissions(Claims claims) {
+        EnumSet<UserPermission> permissions = EnumSet.noneOf(UserPermission.class);
+        if (claims.get(PERMISSIONS_CLAIM) instanceof Collection<?> values) {
+            for (Object value : values) {
+                permissions.add(UserPermission.fromString(String.valueOf(value)));
+            }
         }
+        return Collections.unmodifiableSet(permissions);
     }
 
-    private Jws<Claims> parseToken(String token) {
-        Key verificationKey = resolveKey(token)
-                .orElseThrow(() -> new JwtException("Unknown signing key"));
-        return Jwts.parserBuilder()
-                .setSigningKey(verificationKey)
-                .build()
-                .parseClaimsJws(token);
+    private static Long permissionsVersion(Claims claims) {
+        return claims.get(PERMISSIONS_VERSION_CLAIM) instanceof Number version ? version.longValue() : null;
     }
 
-    private Optional<Key> resolveKey(String token) {
-        return extractKeyId(token).flatMap(jwtKeyService::findVerificationKey);
+    private void remember(String cacheKey, VerifiedToken verified, Instant now) {
+        if (verifiedTokens.size() >= VERIFIED_CACHE_SIZE) {
+            verifiedTokens.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+            if (verifiedTokens.size() >= VERIFIED_CACHE_SIZE) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(cacheKey, verified);
     }
 
-    private Optional<String> extractKeyId(String token) {
+    private static String hash(String token) {
         try {
-            String[] parts = token.split("\\.");
-            if (parts.length < 2) {
-                return Optional.empty();
-            }
-            byte[] headerBytes = Decoders.BASE64URL.decode(parts[0]);
-            Map<String, Object> header = objectMapper.readValue(headerBytes, MAP_TYPE);
-            Object kid = header.get("kid");
-            if (kid instanceof String kidValue && !kidValue.isBlank()) {
-                return Optional.of(kidValue);
-            }
-            return Optional.empty();
-        } catch (Exception e) {
-            return Optional.empty();
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,33 @@
+package com.bellingham.datafutures.security;
+
+import java.time.Instant;
+import java.util.Set;
+
+import com.bellingham.datafutures.model.UserPermission;
+
+/**
+ * The claims of a JWT whose signature and expiry have been checked, produced
+ * once per request by {@link JwtUtil#verify(String)}. Tokens issued before
+ * authorities were embedded have no role and a {@code null} permissions
+ * version.
+ */
+public record VerifiedToken(String username,
+                            String keyId,
+                            Instant expiresAt,
+                            String role,
+                            Set<UserPermission> permissions,
+                            Long permissionsVersion) {
+
+    /**
+     * Whether the embedded authorities are those the user currently has.
+     */
+    public boolean isCurrentFor(AuthenticatedUser current) {
+        return role != null
+                && permissionsVersion != null
+                && permissionsVersion == current.getPermissionsVersion();
+    }
+
+    public AuthenticatedUser toPrincipal() {
+        return new AuthenticatedUser(username, null, role, permissions, permissionsVersion);
+    }
+}
@@ -0,0 +1,185 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.ActivityProperties;
+import com.bellingham.datafutures.model.ContractActivity;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ContractActivityRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind audit log for contract activity. Requests enqueue records and
+ * return; a single writer thread persists them in batches of up to
+ * {@code app.activity.batch-size}, waiting at most
+ * {@code app.activity.flush-interval} for a batch to fill.
+ * <p>
+ * Records are never dropped silently: when the queue stays full for
+ * {@code app.activity.enqueue-timeout} the caller writes its own record, and
+ * on shutdown the writer drains the queue before the data source closes. A
+ * batch that fails is retried record by record so one bad row only loses
+ * itself. Records still queued when the JVM is killed are lost.
+ */
+@Service
+public class ActivityLogService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityLogService.class);
+
+    private final ContractActivityRepository activityRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<ContractActivity> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration enqueueTimeout;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Thread writer;
+
+    private final Counter written;
+    private final Counter failed;
+    private final Counter backpressure;
+    private final Timer flushTimer;
+
+    public ActivityLogService(ContractActivityRepository activityRepository,
+                              PlatformTransactionManager transactionManager,
+                              ActivityProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.flushInterval = properties.getFlushInterval();
+        this.enqueueTimeout = properties.getEnqueueTimeout();
+        this.written = meterRegistry.counter("activity.log.written");
+        this.failed = meterRegistry.counter("activity.log.failed");
+        this.backpressure = meterRegistry.counter("activity.log.backpressure");
+        this.flushTimer = meterRegistry.timer("activity.log.flush");
+        meterRegistry.gauge("activity.log.queue.depth", Tags.empty(), queue, BlockingQueue::size);
+
+        this.writer = new Thread(this::drain, "activity-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public void record(ForwardContract contract, String username, String action) {
+        ContractActivity activity = new ContractActivity();
+        activity.setContract(contract);
+        activity.setUsername(username);
+        activity.setAction(action);
+        activity.setTimestamp(LocalDateTime.now());
+        record(activity);
+    }
+
+    public void record(ContractActivity activity) {
+        if (running.get()) {
+            try {
+                if (queue.offer(activity, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            backpressure.increment();
+        }
+        // The queue is full or shutting down: pay for the write here rather
+        // than lose the record.
+        write(List.of(activity));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running.set(false);
+        try {
+            writer.join(flushInterval.toMillis() + TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<ContractActivity> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void drain() {
+        while (running.get() || !queue.isEmpty()) {
+            List<ContractActivity> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private List<ContractActivity> nextBatch() throws InterruptedException {
+        List<ContractActivity> batch = new ArrayList<>(batchSize);
+        ContractActivity first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            ContractActivity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void write(List<ContractActivity> batch) {
+        flushTimer.record(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> activityRepository.saveAll(batch));
+                written.increment(batch.size());
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Failed to write {} contract activity records as a batch; retrying individually",
+                        batch.size(), ex);
+                batch.forEach(this::writeSingle);
+            }
+        });
+    }
+
+    private void writeSingle(ContractActivity activity) {
+        // The failed batch may have assigned an id that was rolled back.
+        activity.setId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> activityRepository.save(activity));
+            written.increment();
+        } catch (RuntimeException ex) {
+            failed.increment();
+            LOGGER.error("Dropping contract activity '{}' by {}", activity.getAction(), activity.getUsername(), ex);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.bellingham.datafutures.service;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ActivityPartitionInitializer implements CommandLineRunner {
+
+    private final ActivityPartitionService activityPartitionService;
+
+    public ActivityPartitionInitializer(ActivityPartitionService activityPartitionService) {
+        this.activityPartitionService = activityPartitionService;
+    }
+
+    @Override
+    public void run(String... args) {
+        activityPartitionService.maintainPartitions();
+    }
+}
@@ -0,0 +1,155 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.ActivityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains monthly range partitions of {@code contract_activity} on
+ * PostgreSQL once the table has been converted with
+ * {@code db/postgresql/contract_activity_partitioning.sql}. Upcoming months are
+ * created ahead of time and months past the retention window are detached into
+ * the archive schema, keeping contract history lookups on a bounded set of
+ * indexed partitions. Does nothing on other databases or unpartitioned tables.
+ */
+@Service
+public class ActivityPartitionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityPartitionService.class);
+
+    static final String TABLE = "contract_activity";
+    private static final String PARTITION_PREFIX = TABLE + "_";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public ActivityPartitionService(JdbcTemplate jdbcTemplate, ActivityProperties properties) {
+        this(jdbcTemplate, properties, Clock.systemDefaultZone());
+    }
+
+    ActivityPartitionService(JdbcTemplate jdbcTemplate, ActivityProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+
+        YearMonth current = YearMonth.now(clock);
+        Set<YearMonth> attached = attachedPartitions();
+        for (int offset = 0; offset <= Math.max(0, properties.getPremakeMonths()); offset++) {
+            YearMonth month = current.plusMonths(offset);
+            if (!attached.contains(month)) {
+                createPartition(month);
+            }
+        }
+
+        YearMonth oldestRetained = current.minusMonths(Math.max(1, properties.getRetentionMonths()) - 1L);
+        for (YearMonth month : attached) {
+            if (month.isBefore(oldestRetained)) {
+                archivePartition(month);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + SUFFIX.format(month);
+    }
+
+    private boolean isPartitioned() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(product)) {
+            return false;
+        }
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table p join pg_class c on c.oid = p.partrelid "
+                        + "where c.relname = ? and pg_table_is_visible(c.oid))",
+                Boolean.class,
+                TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private Set<YearMonth> attachedPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i "
+                        + "join pg_class c on c.oid = i.inhrelid "
+                        + "join pg_class p on p.oid = i.inhparent "
+                        + "where p.relname = ? and pg_table_is_visible(p.oid)",
+                String.class,
+                TABLE);
+        Set<YearMonth> months = new TreeSet<>();
+        for (String name : names) {
+            parseMonth(name).ifPresent(months::add);
+        }
+        return months;
+    }
+
+    private Optional<YearMonth> parseMonth(String partition) {
+        if (partition == null || !partition.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX));
+        } catch (DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "create table if not exists %s partition of %s for values from ('%s') to ('%s')",
+                    name, TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+            LOGGER.info("Created activity partition {}", name);
+        } catch (DataAccessException ex) {
+            // Typically rows for this month already sit in the default partition.
+            LOGGER.warn("Could not create activity partition {}", name, ex);
+        }
+    }
+
+    private void archivePartition(YearMonth month) {
+        String name = partitionName(month);
+        String schema = quote(properties.getArchiveSchema());
+        try {
+            jdbcTemplate.execute(String.format("alter table %s detach partition %s", TABLE, name));
+            jdbcTemplate.execute("create schema if not exists " + schema);
+            jdbcTemplate.execute(String.format("alter table %s set schema %s", name, schema));
+            String tablespace = properties.getArchiveTablespace();
+            if (tablespace != null && !tablespace.isBlank()) {
+                jdbcTemplate.execute(String.format(
+                        "alter table %s.%s set tablespace %s", schema, name, quote(tablespace)));
+            }
+            LOGGER.info("Archived activity partition {} to schema {}", name, properties.getArchiveSchema());
+        } catch (DataAccessException ex) {
+            LOGGER.warn("Could not archive activity partition {}", name, ex);
+        }
+    }
+
+    private String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
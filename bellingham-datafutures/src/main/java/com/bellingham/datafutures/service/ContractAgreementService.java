@@ -0,0 +1,29 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ContractAgreement;
+import com.bellingham.datafutures.repository.ContractAgreementRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deduplicates agreement text: contracts whose agreement matches an existing
+ * row by content hash point at that row instead of storing another copy.
+ */
+@Service
+public class ContractAgreementService {
+
+    private final ContractAgreementRepository repository;
+
+    public ContractAgreementService(ContractAgreementRepository repository) {
+        this.repository = repository;
+    }
+
+    public ContractAgreement intern(String text) {
+        if (text == null) {
+            return null;
+        }
+        String hash = ContractAgreement.hash(text);
+        return repository.findFirstByContentHashOrderByIdAsc(hash)
+                .filter(existing -> existing.getContent().equals(text))
+                .orElseGet(() -> repository.save(new ContractAgreement(text)));
+    }
+}
@@ -0,0 +1,367 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.dto.ContractImportResult;
+import com.bellingham.datafutures.dto.ContractImportResult.RowError;
+import com.bellingham.datafutures.dto.ForwardContractCreateRequest;
+import com.bellingham.datafutures.model.ContractAgreement;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many listings from one NDJSON or CSV upload. Rows are parsed and
+ * validated one at a time as the body streams in, valid rows are saved in
+ * transactions of {@link #BATCH_SIZE}, and the market and saved-search
+ * watchers hear about the whole import once, at the end.
+ */
+@Service
+public class ContractImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContractImportService.class);
+
+    // One transaction per JDBC insert batch (hibernate.jdbc.batch_size).
+    static final int BATCH_SIZE = 50;
+    public static final int MAX_ROWS = 10_000;
+    // Separates the values of list columns such as requiredClearanceRoles in CSV.
+    private static final String CSV_LIST_SEPARATOR = ";";
+    private static final Set<String> CSV_LIST_COLUMNS = Set.of("requiredClearanceRoles");
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final ForwardContractRepository repository;
+    private final ContractAgreementService agreementService;
+    private final ActivityLogService activityLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ContractImportService(ForwardContractRepository repository,
+                                 ContractAgreementService agreementService,
+                                 ActivityLogService activityLogService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.agreementService = agreementService;
+        this.activityLogService = activityLogService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports every valid row of {@code body}. {@code mapper} turns a request
+     * into an unsaved contract owned by {@code username}, without its
+     * agreement: each distinct agreement text is interned once per import and
+     * shared by every row that uses it.
+     */
+    public ContractImportResult importContracts(InputStream body,
+                                                Format format,
+                                                String username,
+                                                Function<ForwardContractCreateRequest, ForwardContract> mapper) {
+        RowReader reader = format == Format.CSV
+                ? new CsvRowReader(open(body))
+                : new NdjsonRowReader(open(body));
+
+        Map<String, ContractAgreement> agreements = new HashMap<>();
+        List<ForwardContract> created = new ArrayList<>();
+        List<RowError> errors = new ArrayList<>();
+        List<Row> pending = new ArrayList<>(BATCH_SIZE);
+        int received = 0;
+
+        try {
+            for (Row row = reader.next(); row != null; row = reader.next()) {
+                if (received == MAX_ROWS) {
+                    errors.add(new RowError(row.line(),
+                            "Imports are limited to " + MAX_ROWS + " rows; this row and any after it were skipped."));
+                    break;
+                }
+                received++;
+                String problem = row.error() != null ? row.error() : validate(row.request());
+                if (problem != null) {
+                    errors.add(new RowError(row.line(), problem));
+                    continue;
+                }
+                pending.add(row);
+                if (pending.size() == BATCH_SIZE) {
+                    saveBatch(pending, username, mapper, agreements, created, errors);
+                    pending = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Could not read the upload.", ex);
+        }
+        if (!pending.isEmpty()) {
+            saveBatch(pending, username, mapper, agreements, created, errors);
+        }
+
+        if (!created.isEmpty()) {
+            eventPublisher.publishEvent(new ContractsImportedEvent(created));
+        }
+        errors.sort(Comparator.comparingLong(RowError::line));
+        return new ContractImportResult(received, created.size(),
+                created.stream().map(ForwardContract::getId).toList(), errors);
+    }
+
+    private void saveBatch(List<Row> rows,
+                           String username,
+                           Function<ForwardContractCreateRequest, ForwardContract> mapper,
+                           Map<String, ContractAgreement> agreements,
+                           List<ForwardContract> created,
+                           List<RowError> errors) {
+        List<ForwardContract> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                List<ForwardContract> contracts = new ArrayList<>(rows.size());
+                for (Row row : rows) {
+                    ForwardContract contract = mapper.apply(row.request());
+                    String text = row.request().getAgreementText();
+                    if (text != null) {
+                        contract.setAgreement(agreements.computeIfAbsent(text, agreementService::intern));
+                    }
+                    contracts.add(contract);
+                }
+                List<ForwardContract> result = repository.saveAll(contracts);
+                // Keep the persistence context (shared with the request under
+                // open-in-view) from growing with every batch.
+                entityManager.flush();
+                entityManager.clear();
+                return result;
+            });
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Failed to save import batch of {} contracts for {}", rows.size(), username, ex);
+            // Agreements first interned in the rolled-back batch were never stored.
+            agreements.clear();
+            for (Row row : rows) {
+                errors.add(new RowError(row.line(), "Could not be saved; no row in its batch of "
+                        + rows.size() + " was imported."));
+            }
+            return;
+        }
+        for (ForwardContract contract : saved) {
+            activityLogService.record(contract, username, "Created contract");
+        }
+        created.addAll(saved);
+    }
+
+    private String validate(ForwardContractCreateRequest request) {
+        Set<ConstraintViolation<ForwardContractCreateRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static BufferedReader open(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A parsed row, or the reason it could not be parsed.
+     */
+    private record Row(long line, ForwardContractCreateRequest request, String error) {
+    }
+
+    private interface RowReader {
+
+        /**
+         * @return the next row, or {@code null} once the upload is exhausted
+         */
+        Row next();
+    }
+
+    /**
+     * One JSON object per line; blank lines are ignored.
+     */
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() {
+            String line;
+            do {
+                line = readLine(reader);
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+            } while (line.isBlank());
+
+            try {
+                return new Row(lineNumber, objectMapper.readValue(line, ForwardContractCreateRequest.class), null);
+            } catch (JsonProcessingException ex) {
+                return new Row(lineNumber, null, "Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV whose header names {@link ForwardContractCreateRequest}
+     * properties. Quoted fields may contain commas, doubled quotes and line
+     * breaks; empty fields are left unset.
+     */
+    private final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+        private List<String> header;
+
+        CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() {
+            if (header == null) {
+                List<String> columns = readRecord();
+                if (columns == null) {
+                    return null;
+                }
+                header = columns.stream().map(String::trim).toList();
+            }
+
+            List<String> values;
+            long start;
+            do {
+                start = lineNumber + 1;
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            if (values.size() != header.size()) {
+                return new Row(start, null, "Expected " + header.size() + " columns but found " + values.size() + ".");
+            }
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = values.get(i);
+                if (!StringUtils.hasText(value)) {
+                    continue;
+                }
+                String column = header.get(i);
+                fields.put(column, CSV_LIST_COLUMNS.contains(column)
+                        ? Arrays.stream(value.split(CSV_LIST_SEPARATOR)).map(String::trim).toList()
+                        : value);
+            }
+            try {
+                return new Row(start, objectMapper.convertValue(fields, ForwardContractCreateRequest.class), null);
+            } catch (IllegalArgumentException ex) {
+                return new Row(start, null, "Invalid value: " + rootMessage(ex));
+            }
+        }
+
+        private List<String> readRecord() {
+            String line = readLine(reader);
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // A quoted field continues on the next line.
+                    line = readLine(reader);
+                    if (line == null) {
+                        break;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private String rootMessage(IllegalArgumentException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            return cause instanceof JsonProcessingException json ? json.getOriginalMessage() : cause.getMessage();
+        }
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ForwardContract;
+
+/**
+ * Published whenever a forward contract changes state so in-memory views of
+ * the market (order book, watchers) can update incrementally instead of
+ * re-reading the contract table.
+ */
+public record ContractLifecycleEvent(ForwardContract contract, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        LISTED,
+        PURCHASED,
+        CLOSED,
+        EXPIRED,
+        DELIVERED,
+        DELETED
+    }
+
+    public boolean isRemoval() {
+        return type == Type.DELETED;
+    }
+}
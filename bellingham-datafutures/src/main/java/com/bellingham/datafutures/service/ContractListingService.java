@@ -0,0 +1,267 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.dto.ContractPage;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over the contract listings. Pages are ordered by the
+ * requested key with the id as tie breaker and continue from an opaque cursor
+ * holding the last row's key and id, so a page costs the same however deep it
+ * is. Rows with no value for the key are returned after all keyed rows, in id
+ * order. Totals are only counted when asked for.
+ * <p>
+ * History covers contracts the user bought or sold. Rather than one query
+ * with an OR across the buyer and creator columns, which neither index can
+ * serve, it pages both sides separately and merges them.
+ */
+@Service
+public class ContractListingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public enum Listing {
+        ALL,
+        AVAILABLE,
+        PURCHASED,
+        MY,
+        SOLD,
+        HISTORY
+    }
+
+    public enum SortKey {
+        ID("id", null),
+        PRICE("price", BigDecimal::new),
+        DELIVERY_DATE("deliveryDate", LocalDate::parse);
+
+        private final String attribute;
+        private final Function<String, Comparable<?>> parser;
+
+        SortKey(String attribute, Function<String, Comparable<?>> parser) {
+            this.attribute = attribute;
+            this.parser = parser;
+        }
+
+        public static SortKey fromParameter(String value) {
+            if (value == null || value.isBlank()) {
+                return ID;
+            }
+            return Arrays.stream(values())
+                    .filter(key -> key.attribute.equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Unsupported sort '" + value + "'"));
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Comparator<ForwardContract> order() {
+            Comparator<ForwardContract> byId = Comparator.comparing(ForwardContract::getId);
+            if (this == ID) {
+                return byId;
+            }
+            return Comparator.comparing((ForwardContract contract) -> (Comparable) keyOf(contract),
+                    Comparator.nullsLast(Comparator.<Comparable>naturalOrder())).thenComparing(byId);
+        }
+
+        private Comparable<?> keyOf(ForwardContract contract) {
+            return switch (this) {
+                case ID -> contract.getId();
+                case PRICE -> contract.getPrice();
+                case DELIVERY_DATE -> contract.getDeliveryDate();
+            };
+        }
+    }
+
+    private final ForwardContractRepository repository;
+
+    public ContractListingService(ForwardContractRepository repository) {
+        this.repository = repository;
+    }
+
+    public ContractPage list(Listing listing,
+                             String username,
+                             String cursor,
+                             Integer size,
+                             String sort,
+                             boolean includeTotal) {
+        SortKey key = SortKey.fromParameter(sort);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor, key);
+
+        List<ForwardContract> rows;
+        Long total = null;
+        if (listing == Listing.HISTORY) {
+            Specification<ForwardContract> bought = historyBought(username);
+            Specification<ForwardContract> sold = historySold(username);
+            rows = merge(fetchPage(bought, key, after, pageSize + 1),
+                    fetchPage(sold, key, after, pageSize + 1),
+                    key.order(),
+                    pageSize + 1);
+            if (includeTotal) {
+                total = repository.count(bought) + repository.count(sold);
+            }
+        } else {
+            Specification<ForwardContract> filter = filter(listing, username);
+            rows = fetchPage(filter, key, after, pageSize + 1);
+            if (includeTotal) {
+                total = repository.count(filter);
+            }
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = Cursor.of(rows.get(pageSize - 1), key).encode();
+        }
+        return new ContractPage(List.copyOf(rows), nextCursor, total);
+    }
+
+    private List<ForwardContract> fetchPage(Specification<ForwardContract> filter,
+                                            SortKey key,
+                                            Cursor after,
+                                            int limit) {
+        return key == SortKey.ID
+                ? fetch(filter.and(idAfter(after != null ? after.id() : null)), Sort.by("id"), limit)
+                : fetchKeyed(filter, key, after, limit);
+    }
+
+    /**
+     * Merges two pages that are each ordered by {@code order} into the first
+     * {@code limit} rows of their union.
+     */
+    private static List<ForwardContract> merge(List<ForwardContract> left,
+                                               List<ForwardContract> right,
+                                               Comparator<ForwardContract> order,
+                                               int limit) {
+        List<ForwardContract> merged = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < left.size() || j < right.size())) {
+            if (j >= right.size() || (i < left.size() && order.compare(left.get(i), right.get(j)) <= 0)) {
+                merged.add(left.get(i++));
+            } else {
+                merged.add(right.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private List<ForwardContract> fetchKeyed(Specification<ForwardContract> filter,
+                                             SortKey key,
+                                             Cursor after,
+                                             int limit) {
+        List<ForwardContract> rows = new ArrayList<>(limit);
+        boolean inNullSegment = after != null && after.key() == null;
+        if (!inNullSegment) {
+            Specification<ForwardContract> keyed = filter
+                    .and((root, query, cb) -> cb.isNotNull(root.get(key.attribute)))
+                    .and(keyAfter(key, after));
+            rows.addAll(fetch(keyed, Sort.by(key.attribute, "id"), limit));
+        }
+        if (rows.size() < limit) {
+            Specification<ForwardContract> unkeyed = filter
+                    .and((root, query, cb) -> cb.isNull(root.get(key.attribute)))
+                    .and(idAfter(inNullSegment ? after.id() : null));
+            rows.addAll(fetch(unkeyed, Sort.by("id"), limit - rows.size()));
+        }
+        return rows;
+    }
+
+    private List<ForwardContract> fetch(Specification<ForwardContract> spec, Sort sort, int limit) {
+        return repository.findBy(spec, query -> query.sortBy(sort).limit(limit).all());
+    }
+
+    private static Specification<ForwardContract> filter(Listing listing, String username) {
+        return switch (listing) {
+            case ALL -> Specification.where(null);
+            case AVAILABLE -> (root, query, cb) -> cb.equal(root.get("status"), "Available");
+            case PURCHASED -> (root, query, cb) -> cb.and(
+                    cb.equal(root.get("status"), "Purchased"),
+                    cb.equal(root.get("buyerUsername"), username));
+            case MY -> (root, query, cb) -> cb.equal(root.get("creatorUsername"), username);
+            case SOLD -> (root, query, cb) -> cb.and(
+                    cb.equal(root.get("creatorUsername"), username),
+                    cb.isNotNull(root.get("buyerUsername")));
+            case HISTORY -> historyBought(username).or(historySold(username));
+        };
+    }
+
+    // Served by (buyerUsername, status, id).
+    private static Specification<ForwardContract> historyBought(String username) {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("buyerUsername"), username),
+                cb.equal(root.get("status"), "Closed"));
+    }
+
+    // Served by (creatorUsername, status, id); excludes rows the user also
+    // bought so the two sides never overlap.
+    private static Specification<ForwardContract> historySold(String username) {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("creatorUsername"), username),
+                cb.equal(root.get("status"), "Closed"),
+                cb.or(cb.isNull(root.get("buyerUsername")),
+                        cb.notEqual(root.get("buyerUsername"), username)));
+    }
+
+    private static Specification<ForwardContract> idAfter(Long id) {
+        return id == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<ForwardContract> keyAfter(SortKey key, Cursor after) {
+        if (after == null) {
+            return null;
+        }
+        Comparable value = after.key();
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.<Comparable>get(key.attribute), value),
+                cb.and(cb.equal(root.get(key.attribute), value),
+                        cb.greaterThan(root.get("id"), after.id())));
+    }
+
+    private record Cursor(SortKey sort, Comparable<?> key, Long id) {
+
+        private static final String SEPARATOR = "|";
+
+        static Cursor of(ForwardContract contract, SortKey sort) {
+            return new Cursor(sort, sort == SortKey.ID ? null : sort.keyOf(contract), contract.getId());
+        }
+
+        String encode() {
+            String raw = sort.name() + SEPARATOR + (key != null ? key.toString() : "") + SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor, SortKey expected) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 3 || SortKey.valueOf(parts[0]) != expected) {
+                    throw new IllegalArgumentException("Cursor does not match sort " + expected);
+                }
+                Comparable<?> key = parts[1].isEmpty() || expected.parser == null
+                        ? null
+                        : expected.parser.apply(parts[1]);
+                return new Cursor(expected, key, Long.parseLong(parts[2]));
+            } catch (RuntimeException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid contract cursor", ex);
+            }
+        }
+    }
+}
@@ -1,32 +1,185 @@
 package com.bellingham.datafutures.service;
 
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.Notification;
 import com.bellingham.datafutures.repository.ForwardContractRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Hourly expiry of contracts whose delivery date has passed: unsold listings
+ * become {@code Void} and purchased ones {@code Delivered}.
+ * <p>
+ * Each status is walked in keyset chunks of {@link #EXPIRY_CHUNK_SIZE} on the
+ * {@code (status, deliveryDate, id)} index, and every chunk is locked, updated
+ * and committed on its own, so no run holds more than one chunk of rows. Once
+ * a chunk commits, every contract in it gets a {@link ContractLifecycleEvent}
+ * and its owner a notification.
+ */
 @Component
 public class ContractMaintenanceService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContractMaintenanceService.class);
+
+    // Contracts expired per transaction, which bounds how many rows one chunk locks.
+    static final int EXPIRY_CHUNK_SIZE = 500;
+
     private final ForwardContractRepository repository;
     private final MarketDataService marketDataService;
+    private final MarketSnapshotPublisher snapshotPublisher;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final List<Expiry> expiries;
+    private final Timer chunkTimer;
 
+    @Autowired
     public ContractMaintenanceService(ForwardContractRepository repository,
-                                      MarketDataService marketDataService) {
+                                      MarketDataService marketDataService,
+                                      MarketSnapshotPublisher snapshotPublisher,
+                                      NotificationService notificationService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this(repository, marketDataService, snapshotPublisher, notificationService, eventPublisher,
+                transactionManager, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    ContractMaintenanceService(ForwardContractRepository repository,
+                               MarketDataService marketDataService,
+                               MarketSnapshotPublisher snapshotPublisher,
+                               NotificationService notificationService,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               Clock clock) {
         this.repository = repository;
         this.marketDataService = marketDataService;
+        this.snapshotPublisher = snapshotPublisher;
+        this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.expiries = List.of(
+                new Expiry("Available", "Void", ContractLifecycleEvent.Type.EXPIRED,
+                        ForwardContract::getCreatorUsername,
+                        "Your contract \"%s\" reached its delivery date unsold and is now void.",
+                        meterRegistry),
+                new Expiry("Purchased", "Delivered", ContractLifecycleEvent.Type.DELIVERED,
+                        ForwardContract::getBuyerUsername,
+                        "Contract \"%s\" reached its delivery date and is now delivered.",
+                        meterRegistry));
+        this.chunkTimer = meterRegistry.timer("contract.expiry.chunk");
     }
 
     @Scheduled(cron = "0 0 * * * *")
-    @Transactional
     public void updateExpiredContracts() {
-        LocalDate today = LocalDate.now();
-        int availableUpdated = repository.updateStatusForExpiredContracts(today, "Available", "Void");
-        int purchasedUpdated = repository.updateStatusForExpiredContracts(today, "Purchased", "Delivered");
+        LocalDate today = LocalDate.now(clock);
+        for (Expiry expiry : expiries) {
+            expire(expiry, today);
+        }
+
+        // Expired listings left the book through their events; this only
+        // catches drift from writes that bypassed them.
+        if (marketDataService.reconcileOrderBook()) {
+            snapshotPublisher.requestPublish();
+        }
+    }
+
+    private int expire(Expiry expiry, LocalDate cutoff) {
+        long started = System.nanoTime();
+        int total = 0;
+        int chunks = 0;
+        ForwardContract last = null;
+        while (true) {
+            ForwardContract after = last;
+            List<ForwardContract> chunk = chunkTimer.record(
+                    () -> transactionTemplate.execute(status -> expireChunk(expiry, cutoff, after)));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            chunks++;
+            total += chunk.size();
+            expiry.updated().increment(chunk.size());
+            announce(expiry, chunk);
+            if (chunk.size() < EXPIRY_CHUNK_SIZE) {
+                break;
+            }
+            last = chunk.get(chunk.size() - 1);
+        }
+
+        if (total > 0) {
+            long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            LOGGER.info("Moved {} contracts from {} to {} in {} chunks, {} ms ({} contracts/s)",
+                    total, expiry.from(), expiry.to(), chunks, elapsedMs, total * 1000L / elapsedMs);
+        }
+        return total;
+    }
+
+    private List<ForwardContract> expireChunk(Expiry expiry, LocalDate cutoff, ForwardContract after) {
+        Limit limit = Limit.of(EXPIRY_CHUNK_SIZE);
+        List<ForwardContract> chunk = after == null
+                ? repository.findExpiredChunk(expiry.from(), cutoff, limit)
+                : repository.findExpiredChunkAfter(expiry.from(), cutoff,
+                        after.getDeliveryDate(), after.getId(), limit);
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+        // The rows are locked, so every one of them is updated. The update
+        // detaches them, and the new status is set for the events only.
+        repository.updateStatus(chunk.stream().map(ForwardContract::getId).toList(), expiry.from(), expiry.to());
+        chunk.forEach(contract -> contract.setStatus(expiry.to()));
+        return chunk;
+    }
+
+    private void announce(Expiry expiry, List<ForwardContract> chunk) {
+        List<Notification> notifications = new ArrayList<>();
+        for (ForwardContract contract : chunk) {
+            eventPublisher.publishEvent(new ContractLifecycleEvent(contract, expiry.type()));
+
+            String recipient = expiry.recipient().apply(contract);
+            if (recipient != null) {
+                Notification notification = new Notification();
+                notification.setUsername(recipient);
+                notification.setMessage(String.format(expiry.message(),
+                        contract.getTitle() != null ? contract.getTitle() : "#" + contract.getId()));
+                notification.setContractId(contract.getId());
+                notifications.add(notification);
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationService.notifyUsers(notifications);
+        }
+    }
+
+    private record Expiry(String from,
+                          String to,
+                          ContractLifecycleEvent.Type type,
+                          Function<ForwardContract, String> recipient,
+                          String message,
+                          Counter updated) {
 
-        if (availableUpdated > 0 || purchasedUpdated > 0) {
-            marketDataService.publishSnapshot();
+        Expiry(String from, String to, ContractLifecycleEvent.Type type,
+               Function<ForwardContract, String> recipient, String message, MeterRegistry meterRegistry) {
+            this(from, to, type, recipient, message,
+                    meterRegistry.counter("contract.expiry.updated", "status", to.toLowerCase()));
         }
     }
 }
@@ -0,0 +1,40 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Claims contracts for buyers with a single conditional UPDATE, so of any
+ * number of concurrent purchases of the same listing exactly one moves it out
+ * of {@code Available} and the rest see zero rows changed. No lock is held
+ * before the UPDATE and no version check can fail after it.
+ */
+@Service
+public class ContractPurchaseService {
+
+    private final ForwardContractRepository repository;
+
+    public ContractPurchaseService(ForwardContractRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return the purchased contract with its details loaded, or empty when
+     * the contract was no longer available
+     */
+    @Transactional
+    public Optional<ForwardContract> purchase(Long id, String buyerUsername, String buyerSignature) {
+        if (repository.markPurchased(id, buyerUsername, LocalDate.now()) == 0) {
+            return Optional.empty();
+        }
+        ForwardContract contract = repository.findDetailById(id)
+                .orElseThrow(() -> new IllegalStateException("Purchased contract " + id + " disappeared"));
+        contract.setBuyerSignature(buyerSignature);
+        return Optional.of(repository.save(contract));
+    }
+}
@@ -0,0 +1,17 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ForwardContract;
+
+import java.util.List;
+
+/**
+ * Published once at the end of a bulk import with every contract it created,
+ * so listeners update the market and match saved searches in a single pass
+ * rather than once per {@link ContractLifecycleEvent}.
+ */
+public record ContractsImportedEvent(List<ForwardContract> contracts) {
+
+    public ContractsImportedEvent {
+        contracts = List.copyOf(contracts);
+    }
+}
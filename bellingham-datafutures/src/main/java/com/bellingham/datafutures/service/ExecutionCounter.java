@@ -0,0 +1,96 @@
+package com.bellingham.datafutures.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Sliding one-hour count of executions kept in per-second buckets. Expired
+ * buckets are cleared as the window advances, so recording and reading are
+ * amortized O(1) and never touch the activity table.
+ */
+@Component
+public class ExecutionCounter {
+
+    static final Duration WINDOW = Duration.ofHours(1);
+    private static final int BUCKETS = (int) WINDOW.toSeconds();
+
+    private final Clock clock;
+    private final long[] counts = new long[BUCKETS];
+    private long headSecond = Long.MIN_VALUE;
+    private long total;
+    private boolean seeded;
+
+    public ExecutionCounter() {
+        this(Clock.systemDefaultZone());
+    }
+
+    ExecutionCounter(Clock clock) {
+        this.clock = clock;
+    }
+
+    public synchronized void seed(Collection<LocalDateTime> executions) {
+        Arrays.fill(counts, 0L);
+        total = 0L;
+        headSecond = clock.instant().getEpochSecond();
+        for (LocalDateTime execution : executions) {
+            add(execution.atZone(clock.getZone()).toInstant().getEpochSecond());
+        }
+        seeded = true;
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    public synchronized void record() {
+        add(clock.instant().getEpochSecond());
+    }
+
+    public synchronized long countLastHour() {
+        advance(clock.instant().getEpochSecond());
+        return total;
+    }
+
+    /**
+     * Start of the window, for reseeding from persisted activity.
+     */
+    public LocalDateTime windowStart() {
+        return LocalDateTime.ofInstant(clock.instant().minus(WINDOW), clock.getZone());
+    }
+
+    private void add(long second) {
+        advance(clock.instant().getEpochSecond());
+        if (second <= headSecond - BUCKETS) {
+            return;
+        }
+        // Timestamps ahead of the clock land in the current bucket.
+        counts[index(Math.min(second, headSecond))]++;
+        total++;
+    }
+
+    private void advance(long nowSecond) {
+        if (headSecond == Long.MIN_VALUE) {
+            headSecond = nowSecond;
+            return;
+        }
+        if (nowSecond <= headSecond) {
+            return;
+        }
+        long steps = Math.min(nowSecond - headSecond, BUCKETS);
+        for (long step = 1; step <= steps; step++) {
+            int index = index(headSecond + step);
+            total -= counts[index];
+            counts[index] = 0L;
+        }
+        headSecond = nowSecond;
+    }
+
+    private int index(long second) {
+        return (int) Math.floorMod(second, (long) BUCKETS);
+    }
+}
@@ -1,14 +1,21 @@
 package com.bellingham.datafutures.service;
 
+import com.bellingham.datafutures.dto.market.MarketAggregate;
+import com.bellingham.datafutures.dto.market.MarketContract;
 import com.bellingham.datafutures.dto.market.MarketDelta;
 import com.bellingham.datafutures.dto.market.MarketKpis;
 import com.bellingham.datafutures.dto.market.MarketSnapshot;
+import com.bellingham.datafutures.dto.market.MarketUpdate;
 import com.bellingham.datafutures.model.ForwardContract;
 import com.bellingham.datafutures.repository.ContractActivityRepository;
 import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -17,75 +24,171 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
 
 @Service
 public class MarketDataService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MarketDataService.class);
     private static final String PURCHASE_ACTION = "Purchased contract";
+    private static final String AVAILABLE = "Available";
 
     private final ForwardContractRepository contractRepository;
     private final ContractActivityRepository activityRepository;
     private final MarketDataStreamService streamService;
+    private final MarketOrderBook orderBook;
+    private final ExecutionCounter executionCounter;
+    private final ObjectMapper objectMapper;
     private final AtomicReference<MarketKpis> baseline = new AtomicReference<>(MarketKpis.empty());
+    private final Object publishLock = new Object();
+    private MarketSnapshot published;
+    // Read without the lock by HTTP readers and new subscribers.
+    private volatile PublishedSnapshot current;
+    private long sequence;
 
     public MarketDataService(ForwardContractRepository contractRepository,
                              ContractActivityRepository activityRepository,
-                             MarketDataStreamService streamService) {
+                             MarketDataStreamService streamService,
+                             MarketOrderBook orderBook,
+                             ExecutionCounter executionCounter,
+                             ObjectMapper objectMapper) {
         this.contractRepository = contractRepository;
         this.activityRepository = activityRepository;
         this.streamService = streamService;
+        this.orderBook = orderBook;
+        this.executionCounter = executionCounter;
+        this.objectMapper = objectMapper;
     }
 
+    /**
+     * Computes the current book, diffs it against the last published one and
+     * broadcasts only the changed rows under the next sequence number.
+     */
     public void publishSnapshot() {
-        MarketSnapshot snapshot = computeSnapshot(true);
-        streamService.broadcast(snapshot);
+        synchronized (publishLock) {
+            MarketSnapshot previous = published;
+            MarketSnapshot snapshot = computeSnapshot(true);
+            snapshot.setSequence(++sequence);
+            published = snapshot;
+            current = freeze(snapshot);
+            streamService.broadcast(diff(previous, snapshot));
+        }
     }
 
-    public MarketSnapshot getSnapshot() {
-        MarketSnapshot snapshot = computeSnapshot(false);
-        snapshot.setDelta(MarketDelta.empty());
-        return snapshot;
+    /**
+     * Whether the published executions-last-hour KPI no longer matches the
+     * rolling window, as happens when executions age out of the hour on a
+     * market that is otherwise quiet.
+     */
+    public boolean isExecutionCountStale() {
+        synchronized (publishLock) {
+            return published != null
+                    && executionCounter.isSeeded()
+                    && published.getKpis().getExecutionsLastHour() != executionCounter.countLastHour();
+        }
+    }
+
+    /**
+     * Returns the last published snapshot without recomputing anything; only
+     * the first call after startup, before any publish, builds one.
+     */
+    public PublishedSnapshot getSnapshot() {
+        PublishedSnapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (publishLock) {
+            return ensurePublished();
+        }
     }
 
-    public void sendSnapshot(SseEmitter emitter) {
+    /**
+     * Brings a new subscriber up to date: replays missed updates when the
+     * client resumes from a {@code Last-Event-ID} still held in the replay
+     * buffer, otherwise sends the last published book as a full snapshot.
+     * Runs under the publish lock so no update can interleave with it.
+     */
+    public void sendSnapshot(SseEmitter emitter, String lastEventId) {
         try {
-            MarketSnapshot snapshot = computeSnapshot(false);
-            snapshot.setDelta(MarketDelta.empty());
-            streamService.sendSnapshot(emitter, snapshot);
+            synchronized (publishLock) {
+                PublishedSnapshot snapshot = ensurePublished();
+                if (streamService.replay(emitter, lastEventId, sequence)) {
+                    return;
+                }
+                streamService.sendSnapshot(emitter, snapshot);
+            }
         } catch (IOException ex) {
             LOGGER.warn("Failed to send initial market snapshot", ex);
             emitter.completeWithError(ex);
         }
     }
 
+    public void rebuildOrderBook() {
+        List<MarketContract> available = contractRepository.findMarketRowsByStatus(AVAILABLE);
+        orderBook.seed(available);
+        LOGGER.info("Market order book seeded with {} available contracts", available.size());
+    }
+
+    public void rebuildExecutionCounter() {
+        List<LocalDateTime> executions = activityRepository
+                .findTimestampsByActionAndTimestampAfter(PURCHASE_ACTION, executionCounter.windowStart());
+        executionCounter.seed(executions);
+        LOGGER.info("Execution counter seeded with {} purchases from the last hour", executions.size());
+    }
+
+    /**
+     * Checks the in-memory book against a single aggregate query and reloads
+     * it only when the two disagree, e.g. after writes that bypassed the
+     * lifecycle events.
+     *
+     * @return {@code true} when the book had drifted and was rebuilt
+     */
+    public boolean reconcileOrderBook() {
+        if (!orderBook.isSeeded()) {
+            rebuildOrderBook();
+            return true;
+        }
+        MarketAggregate aggregate = contractRepository.aggregateMarket(AVAILABLE, MarketOrderBook.DEPTH);
+        if (matches(aggregate, orderBook.summarize())) {
+            return false;
+        }
+        LOGGER.warn("Market order book drifted from the database; rebuilding");
+        rebuildOrderBook();
+        return true;
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContractLifecycle(ContractLifecycleEvent event) {
+        orderBook.apply(event);
+        if (event.type() == ContractLifecycleEvent.Type.PURCHASED) {
+            executionCounter.record();
+        }
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onContractsImported(ContractsImportedEvent event) {
+        for (ForwardContract contract : event.contracts()) {
+            orderBook.apply(new ContractLifecycleEvent(contract, ContractLifecycleEvent.Type.CREATED));
+        }
+    }
+
     private MarketSnapshot computeSnapshot(boolean updateBaseline) {
-        List<ForwardContract> available = contractRepository
-                .findByStatus("Available", Pageable.unpaged())
-                .getContent();
-
-        List<ForwardContract> orderBook = available.stream()
-                .sorted(Comparator.comparing(ForwardContract::getPrice, (left, right) -> {
-                    if (left == null && right == null) {
-                        return 0;
-                    }
-                    if (left == null) {
-                        return 1;
-                    }
-                    if (right == null) {
-                        return -1;
-                    }
-                    return left.compareTo(right);
-                }))
-                .limit(50)
-                .collect(Collectors.toList());
-
-        MarketKpis kpis = calculateKpis(available, orderBook);
+        if (!orderBook.isSeeded()) {
+            rebuildOrderBook();
+        }
+        if (!executionCounter.isSeeded()) {
+            rebuildExecutionCounter();
+        }
+        MarketOrderBook.Summary summary = orderBook.summarize();
+
+        MarketKpis kpis = calculateKpis(summary);
         MarketKpis previous = baseline.get();
         MarketDelta delta = MarketDelta.from(previous, kpis);
 
@@ -94,55 +197,97 @@ public class MarketDataService {
         }
 
         MarketSnapshot snapshot = new MarketSnapshot();
-        snapshot.setContracts(orderBook);
+        snapshot.setContracts(summary.contracts());
         snapshot.setKpis(kpis);
         snapshot.setDelta(delta);
         snapshot.setGeneratedAt(Instant.now());
         return snapshot;
     }
 
-    private MarketKpis calculateKpis(List<ForwardContract> available, List<ForwardContract> orderBook) {
-        BigDecimal totalVolume = available.stream()
-                .map(ForwardContract::getPrice)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Callers hold the publish lock.
+    private PublishedSnapshot ensurePublished() {
+        if (published == null) {
+            published = computeSnapshot(true);
+            published.setSequence(sequence);
+            current = freeze(published);
+        }
+        return current;
+    }
 
-        long availableCount = available.size();
-        BigDecimal averageAsk = availableCount == 0
-                ? BigDecimal.ZERO
-                : totalVolume.divide(BigDecimal.valueOf(availableCount), 2, RoundingMode.HALF_UP);
+    private PublishedSnapshot freeze(MarketSnapshot source) {
+        MarketSnapshot snapshot = new MarketSnapshot();
+        snapshot.setContracts(List.copyOf(source.getContracts()));
+        snapshot.setKpis(source.getKpis());
+        snapshot.setDelta(MarketDelta.empty());
+        snapshot.setGeneratedAt(source.getGeneratedAt());
+        snapshot.setSequence(source.getSequence());
+        try {
+            return new PublishedSnapshot(snapshot.getSequence(), streamService.eventId(snapshot.getSequence()),
+                    objectMapper.writeValueAsString(snapshot));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize market snapshot", ex);
+        }
+    }
+
+    private MarketUpdate diff(MarketSnapshot previous, MarketSnapshot current) {
+        Map<Long, MarketContract> before = new LinkedHashMap<>();
+        if (previous != null) {
+            for (MarketContract contract : previous.getContracts()) {
+                before.put(contract.id(), contract);
+            }
+        }
 
-        BigDecimal bestAsk = orderBook.stream()
-                .map(ForwardContract::getPrice)
-                .filter(Objects::nonNull)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
+        List<MarketContract> inserted = new ArrayList<>();
+        List<MarketContract> updated = new ArrayList<>();
+        for (MarketContract contract : current.getContracts()) {
+            MarketContract prior = before.remove(contract.id());
+            if (prior == null) {
+                inserted.add(contract);
+            } else if (!Objects.equals(prior, contract)) {
+                updated.add(contract);
+            }
+        }
 
-        BigDecimal tailAsk = orderBook.stream()
-                .map(ForwardContract::getPrice)
-                .filter(Objects::nonNull)
-                .max(BigDecimal::compareTo)
-                .orElse(bestAsk);
+        MarketUpdate update = new MarketUpdate();
+        update.setSequence(current.getSequence());
+        update.setInserted(inserted);
+        update.setUpdated(updated);
+        update.setRemoved(new ArrayList<>(before.keySet()));
+        update.setKpis(current.getKpis());
+        update.setDelta(current.getDelta());
+        update.setGeneratedAt(current.getGeneratedAt());
+        return update;
+    }
 
-        BigDecimal spread = tailAsk.subtract(bestAsk);
+    private boolean matches(MarketAggregate aggregate, MarketOrderBook.Summary summary) {
+        BigDecimal bestAsk = aggregate.bestAsk() != null ? aggregate.bestAsk() : BigDecimal.ZERO;
+        BigDecimal tailAsk = aggregate.tailAsk() != null ? aggregate.tailAsk() : bestAsk;
+        return aggregate.openContracts() == summary.openContracts()
+                && aggregate.activeSellers() == summary.activeSellers()
+                && aggregate.totalVolume().compareTo(summary.totalVolume()) == 0
+                && bestAsk.compareTo(summary.bestAsk()) == 0
+                && tailAsk.compareTo(summary.tailAsk()) == 0;
+    }
+
+    private MarketKpis calculateKpis(MarketOrderBook.Summary summary) {
+        BigDecimal totalVolume = summary.totalVolume();
+
+        long availableCount = summary.openContracts();
+        BigDecimal averageAsk = availableCount == 0
+                ? BigDecimal.ZERO
+                : totalVolume.divide(BigDecimal.valueOf(availableCount), 2, RoundingMode.HALF_UP);
 
-        long activeSellers = available.stream()
-                .map(ForwardContract::getSeller)
-                .filter(Objects::nonNull)
-                .map(String::trim)
-                .filter(value -> !value.isEmpty())
-                .distinct()
-                .count();
+        BigDecimal bestAsk = summary.bestAsk();
+        BigDecimal spread = summary.tailAsk().subtract(bestAsk);
 
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
-        long executionsLastHour = activityRepository.countByActionAndTimestampAfter(PURCHASE_ACTION, cutoff);
+        long executionsLastHour = executionCounter.countLastHour();
 
         MarketKpis kpis = new MarketKpis();
         kpis.setOpenContracts(availableCount);
         kpis.setMarketDepth(availableCount);
         kpis.setTotalVolume(totalVolume);
         kpis.setAverageAsk(averageAsk);
-        kpis.setActiveSellers(activeSellers);
+        kpis.setActiveSellers(summary.activeSellers());
         kpis.setSpread(spread);
         kpis.setBestAsk(bestAsk);
         kpis.setExecutionsLastHour(executionsLastHour);
@@ -1,52 +1,208 @@
 package com.bellingham.datafutures.service;
 
-import com.bellingham.datafutures.dto.market.MarketSnapshot;
+import com.bellingham.datafutures.config.MarketProperties;
+import com.bellingham.datafutures.dto.market.MarketUpdate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class MarketDataStreamService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarketDataStreamService.class);
+
     public static final String MARKET_EVENT_NAME = "market-update";
+    public static final String MARKET_DELTA_EVENT_NAME = "market-delta";
+    public static final String MARKET_RESYNC_EVENT_NAME = "market-resync";
     private static final long TIMEOUT = 0L;
 
-    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    // Sent in place of dropped deltas so the client reconnects for a snapshot.
+    private static final SseSubscriber.Frame RESYNC_FRAME =
+            SseSubscriber.Frame.json(MARKET_RESYNC_EVENT_NAME, Map.of("reason", "overflow"));
+
+    // Subscribers that have not yet been sent their snapshot or replay. They
+    // join the broadcast only once primed, so no delta can overtake the state
+    // it applies to.
+    private final Map<SseEmitter, SseSubscriber> pending = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, SseSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int replayCapacity;
+    private final Deque<ReplayFrame> replay = new ArrayDeque<>();
+    // Prefixes event ids so ids issued before a restart are never resumed.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final DistributionSummary lag;
+    private final Counter dropped;
+
+    public MarketDataStreamService(ObjectMapper objectMapper,
+                                   MarketProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = properties.getSubscriberQueueCapacity();
+        this.replayCapacity = Math.max(0, properties.getReplayCapacity());
+        this.lag = meterRegistry.summary("sse.subscriber.lag", "stream", "market");
+        this.dropped = meterRegistry.counter("sse.subscriber.dropped", "stream", "market");
+        meterRegistry.gauge("sse.subscribers", Tags.of("stream", "market"), this,
+                MarketDataStreamService::getSubscriberCount);
+        meterRegistry.gauge("sse.subscriber.max.lag", Tags.of("stream", "market"), this,
+                MarketDataStreamService::getMaxLag);
+    }
 
     public SseEmitter subscribe() {
         SseEmitter emitter = new SseEmitter(TIMEOUT);
-        emitters.add(emitter);
+        SseSubscriber subscriber = new SseSubscriber(emitter, queueCapacity,
+                SseSubscriber.OverflowPolicy.RESYNC, RESYNC_FRAME, lag, dropped);
+        pending.put(emitter, subscriber);
+        subscriber.start("sse-market-" + subscriberSequence.incrementAndGet(), () -> {
+            synchronized (pending) {
+                pending.remove(emitter);
+                subscribers.remove(emitter);
+            }
+        });
+        return emitter;
+    }
 
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((ex) -> emitters.remove(emitter));
+    public void broadcast(MarketUpdate update) {
+        // Serialize once and hand the same JSON to every subscriber queue instead
+        // of letting each emitter run the update through Jackson again.
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(update);
+        } catch (JsonProcessingException ex) {
+            LOGGER.error("Failed to serialize market update", ex);
+            return;
+        }
 
-        return emitter;
+        SseSubscriber.Frame frame = SseSubscriber.Frame.json(
+                eventId(update.getSequence()), MARKET_DELTA_EVENT_NAME, payload);
+        remember(update.getSequence(), frame);
+
+        for (SseSubscriber subscriber : subscribers.values()) {
+            subscriber.offer(frame);
+        }
+    }
+
+    /**
+     * Queues the snapshot for the given emitter and adds it to the broadcast.
+     * Must not race a {@link #broadcast}, or the first delta may precede it.
+     */
+    public void sendSnapshot(SseEmitter emitter, PublishedSnapshot snapshot) throws IOException {
+        SseSubscriber subscriber = subscriber(emitter);
+        subscriber.offer(SseSubscriber.Frame.json(snapshot.eventId(), MARKET_EVENT_NAME, snapshot.json()));
+        activate(emitter, subscriber);
+    }
+
+    /**
+     * Queues every update after {@code lastEventId} for the given emitter and
+     * adds it to the broadcast, under the same ordering rule as
+     * {@link #sendSnapshot}.
+     *
+     * @return {@code false} when the id is unknown, has already fallen out of
+     * the replay buffer, or is so far behind that the missed updates would
+     * overflow the subscriber queue; the caller must then send a snapshot
+     */
+    public boolean replay(SseEmitter emitter, String lastEventId, long currentSequence) throws IOException {
+        long lastSequence = parseSequence(lastEventId);
+        if (lastSequence < 0 || lastSequence > currentSequence) {
+            return false;
+        }
+
+        List<SseSubscriber.Frame> missed = new ArrayList<>();
+        synchronized (replay) {
+            if (lastSequence < currentSequence
+                    && (replay.isEmpty() || replay.peekFirst().sequence() > lastSequence + 1)) {
+                return false;
+            }
+            for (ReplayFrame frame : replay) {
+                if (frame.sequence() > lastSequence) {
+                    missed.add(frame.frame());
+                }
+            }
+        }
+
+        if (missed.size() > queueCapacity) {
+            return false;
+        }
+
+        SseSubscriber subscriber = subscriber(emitter);
+        missed.forEach(subscriber::offer);
+        activate(emitter, subscriber);
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return pending.size() + subscribers.size();
     }
 
-    public void broadcast(MarketSnapshot snapshot) {
-        List<SseEmitter> deadEmitters = new ArrayList<>();
+    public long getMaxLag() {
+        return subscribers.values().stream()
+                .mapToLong(SseSubscriber::getLag)
+                .max()
+                .orElse(0L);
+    }
 
-        for (SseEmitter emitter : emitters) {
-            try {
-                sendSnapshot(emitter, snapshot);
-            } catch (IOException ex) {
-                deadEmitters.add(emitter);
+    private SseSubscriber subscriber(SseEmitter emitter) throws IOException {
+        SseSubscriber subscriber = pending.get(emitter);
+        if (subscriber == null) {
+            subscriber = subscribers.get(emitter);
+        }
+        if (subscriber == null) {
+            throw new IOException("Market stream subscriber is no longer connected");
+        }
+        return subscriber;
+    }
+
+    private void activate(SseEmitter emitter, SseSubscriber subscriber) {
+        synchronized (pending) {
+            if (pending.remove(emitter, subscriber)) {
+                subscribers.put(emitter, subscriber);
             }
         }
+    }
 
-        if (!deadEmitters.isEmpty()) {
-            emitters.removeAll(deadEmitters);
+    private void remember(long sequence, SseSubscriber.Frame frame) {
+        if (replayCapacity == 0) {
+            return;
+        }
+        synchronized (replay) {
+            if (replay.size() >= replayCapacity) {
+                replay.pollFirst();
+            }
+            replay.addLast(new ReplayFrame(sequence, frame));
         }
     }
 
-    public void sendSnapshot(SseEmitter emitter, MarketSnapshot snapshot) throws IOException {
-        emitter.send(SseEmitter.event()
-                .name(MARKET_EVENT_NAME)
-                .data(snapshot));
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
     }
+
+    private long parseSequence(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    private record ReplayFrame(long sequence, SseSubscriber.Frame frame) {}
 }
@@ -0,0 +1,142 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.model.ForwardContract;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Price-ordered book of available contracts maintained incrementally from
+ * lifecycle events. Mutations are O(log n); reading the top of the book is
+ * bounded by {@link #DEPTH}.
+ */
+@Component
+public class MarketOrderBook {
+
+    public static final int DEPTH = 50;
+    private static final String AVAILABLE = "Available";
+
+    private static final Comparator<Level> LEVEL_ORDER = Comparator
+            .comparing(Level::price, Comparator.nullsLast(Comparator.<BigDecimal>naturalOrder()))
+            .thenComparing(Level::id);
+
+    private final NavigableSet<Level> levels = new TreeSet<>(LEVEL_ORDER);
+    private final Map<Long, Level> levelsById = new HashMap<>();
+    private final Map<String, Integer> sellerCounts = new HashMap<>();
+    private BigDecimal totalVolume = BigDecimal.ZERO;
+    private boolean seeded;
+
+    public synchronized void seed(Collection<MarketContract> contracts) {
+        levels.clear();
+        levelsById.clear();
+        sellerCounts.clear();
+        totalVolume = BigDecimal.ZERO;
+        for (MarketContract contract : contracts) {
+            upsert(contract);
+        }
+        seeded = true;
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    public synchronized void apply(ContractLifecycleEvent event) {
+        ForwardContract contract = event.contract();
+        if (contract == null || contract.getId() == null) {
+            return;
+        }
+        if (event.isRemoval()) {
+            remove(contract.getId());
+        } else {
+            upsert(MarketContract.from(contract));
+        }
+    }
+
+    public synchronized void upsert(MarketContract contract) {
+        if (contract == null || contract.id() == null) {
+            return;
+        }
+        remove(contract.id());
+        if (!AVAILABLE.equalsIgnoreCase(contract.status())) {
+            return;
+        }
+
+        Level level = new Level(contract.id(), contract.price(), normalizeSeller(contract.seller()), contract);
+        levels.add(level);
+        levelsById.put(level.id(), level);
+        if (level.price() != null) {
+            totalVolume = totalVolume.add(level.price());
+        }
+        if (level.seller() != null) {
+            sellerCounts.merge(level.seller(), 1, Integer::sum);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        Level level = levelsById.remove(id);
+        if (level == null) {
+            return;
+        }
+        levels.remove(level);
+        if (level.price() != null) {
+            totalVolume = totalVolume.subtract(level.price());
+        }
+        if (level.seller() != null) {
+            sellerCounts.computeIfPresent(level.seller(), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    public synchronized Summary summarize() {
+        List<MarketContract> top = new ArrayList<>(Math.min(DEPTH, levels.size()));
+        BigDecimal bestAsk = null;
+        BigDecimal tailAsk = null;
+        for (Level level : levels) {
+            if (top.size() == DEPTH) {
+                break;
+            }
+            top.add(level.contract());
+            if (level.price() != null) {
+                if (bestAsk == null) {
+                    bestAsk = level.price();
+                }
+                tailAsk = level.price();
+            }
+        }
+
+        BigDecimal best = bestAsk != null ? bestAsk : BigDecimal.ZERO;
+        return new Summary(
+                top,
+                levels.size(),
+                totalVolume,
+                sellerCounts.size(),
+                best,
+                tailAsk != null ? tailAsk : best);
+    }
+
+    private String normalizeSeller(String seller) {
+        if (seller == null) {
+            return null;
+        }
+        String trimmed = seller.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record Level(Long id, BigDecimal price, String seller, MarketContract contract) {}
+
+    public record Summary(List<MarketContract> contracts,
+                          long openContracts,
+                          BigDecimal totalVolume,
+                          long activeSellers,
+                          BigDecimal bestAsk,
+                          BigDecimal tailAsk) {}
+}
@@ -0,0 +1,20 @@
+package com.bellingham.datafutures.service;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MarketOrderBookInitializer implements CommandLineRunner {
+
+    private final MarketDataService marketDataService;
+
+    public MarketOrderBookInitializer(MarketDataService marketDataService) {
+        this.marketDataService = marketDataService;
+    }
+
+    @Override
+    public void run(String... args) {
+        marketDataService.rebuildOrderBook();
+        marketDataService.rebuildExecutionCounter();
+    }
+}
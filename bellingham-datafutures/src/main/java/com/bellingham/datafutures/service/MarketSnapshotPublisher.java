@@ -0,0 +1,101 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.MarketProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marks the market dirty on every mutation and publishes at most one snapshot
+ * per configured window from a dedicated thread, keeping snapshot computation
+ * and SSE fan-out off the request path.
+ */
+@Component
+public class MarketSnapshotPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarketSnapshotPublisher.class);
+
+    private final MarketDataService marketDataService;
+    private final Duration window;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "market-snapshot-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter requested;
+    private final Counter coalesced;
+    private final Counter emitted;
+    private final Timer publishTimer;
+
+    public MarketSnapshotPublisher(MarketDataService marketDataService,
+                                   MarketProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.marketDataService = marketDataService;
+        this.window = properties.getPublishWindow();
+        this.requested = meterRegistry.counter("market.snapshot.requested");
+        this.coalesced = meterRegistry.counter("market.snapshot.coalesced");
+        this.emitted = meterRegistry.counter("market.snapshot.emitted");
+        this.publishTimer = meterRegistry.timer("market.snapshot.publish");
+    }
+
+    @EventListener
+    public void onContractLifecycle(ContractLifecycleEvent event) {
+        requestPublish();
+    }
+
+    @EventListener
+    public void onContractsImported(ContractsImportedEvent event) {
+        requestPublish();
+    }
+
+    public void requestPublish() {
+        requested.increment();
+        if (dirty.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            coalesced.increment();
+        }
+    }
+
+    /**
+     * Executions leave the one-hour window without any mutation to announce
+     * it, so the KPI is checked against the counter and republished when it
+     * has moved. That also moves the snapshot's ETag.
+     */
+    @Scheduled(fixedDelayString = "${app.market.execution-check-interval:5s}",
+            initialDelayString = "${app.market.execution-check-interval:5s}")
+    public void refreshExecutionWindow() {
+        if (marketDataService.isExecutionCountStale()) {
+            requestPublish();
+        }
+    }
+
+    private void flush() {
+        dirty.set(false);
+        try {
+            publishTimer.record(marketDataService::publishSnapshot);
+            emitted.increment();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Failed to publish market snapshot", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,22 +1,67 @@
 package com.bellingham.datafutures.service;
 
+import com.bellingham.datafutures.dto.NotificationPage;
 import com.bellingham.datafutures.model.Notification;
 import com.bellingham.datafutures.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class NotificationService {
 
+    // Notifications persisted per transaction when fanning out to many users.
+    static final int FAN_OUT_CHUNK_SIZE = 500;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final NotificationRepository repository;
     private final NotificationStreamService streamService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration unreadCountTtl;
+    private final Clock clock;
+    // Unread counts per user, loaded on first use and kept current by the
+    // writes this node handles. Writes handled by other nodes, or made with
+    // plain SQL, show up once the entry expires and is reloaded.
+    private final Map<String, UnreadCount> unreadCounts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NotificationService(NotificationRepository repository,
+                               NotificationStreamService streamService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.notifications.unread-count-ttl:30s}") Duration unreadCountTtl) {
+        this(repository, streamService, transactionManager, unreadCountTtl, Clock.systemDefaultZone());
+    }
 
-    public NotificationService(NotificationRepository repository, NotificationStreamService streamService) {
+    NotificationService(NotificationRepository repository,
+                        NotificationStreamService streamService,
+                        PlatformTransactionManager transactionManager,
+                        Duration unreadCountTtl,
+                        Clock clock) {
         this.repository = repository;
         this.streamService = streamService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCountTtl = unreadCountTtl;
+        this.clock = clock;
     }
 
     public void notifyUser(String username, String message) {
@@ -30,11 +75,69 @@ public class NotificationService {
         n.setTimestamp(LocalDateTime.now());
         n.setContractId(contractId);
         Notification saved = repository.save(n);
+        adjustUnread(username, 1);
         streamService.sendNotification(username, saved);
     }
 
-    public java.util.List<Notification> getNotifications(String username) {
-        return repository.findByUsernameOrderByTimestampDesc(username);
+    /**
+     * Delivers a batch of notifications. They are saved in chunks, one
+     * transaction each, and every chunk is pushed to connected clients once
+     * it is committed.
+     */
+    public void notifyUsers(Collection<Notification> notifications) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> chunk = new ArrayList<>(Math.min(notifications.size(), FAN_OUT_CHUNK_SIZE));
+        for (Notification n : notifications) {
+            if (n.getTimestamp() == null) {
+                n.setTimestamp(now);
+            }
+            chunk.add(n);
+            if (chunk.size() == FAN_OUT_CHUNK_SIZE) {
+                saveAndPush(chunk);
+                chunk = new ArrayList<>(FAN_OUT_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveAndPush(chunk);
+        }
+    }
+
+    private void saveAndPush(List<Notification> chunk) {
+        List<Notification> saved = transactionTemplate.execute(status -> repository.saveAll(chunk));
+        for (Notification n : saved) {
+            if (!n.isReadFlag()) {
+                adjustUnread(n.getUsername(), 1);
+            }
+        }
+        streamService.sendNotifications(saved);
+    }
+
+    /**
+     * Returns the page of notifications that follows {@code cursor}, newest
+     * first, seeking on {@code (username, timestamp, id)} instead of offsets.
+     */
+    public NotificationPage getNotifications(String username, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Limit fetch = Limit.of(size + 1);
+
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = repository.findByUsernameOrderByTimestampDescIdDesc(username, fetch);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            rows = repository.findPageBefore(username, position.timestamp(), position.id(), fetch);
+        }
+
+        if (rows.size() <= size) {
+            return new NotificationPage(rows, null);
+        }
+        List<Notification> page = rows.subList(0, size);
+        Notification last = page.get(size - 1);
+        return new NotificationPage(List.copyOf(page), new Cursor(last.getTimestamp(), last.getId()).encode());
+    }
+
+    public long getUnreadCount(String username) {
+        return unreadCounter(username).get();
     }
 
     public void markRead(Long id, String username) {
@@ -45,8 +148,87 @@ public class NotificationService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Cannot modify notifications for another user");
         }
 
+        // Only the request whose UPDATE flips the flag decrements, so repeated
+        // or concurrent calls for the same notification count once.
+        Integer updated = transactionTemplate.execute(status -> repository.markRead(id, username));
+        if (updated != null && updated > 0) {
+            adjustUnread(username, -updated);
+        }
         notification.setReadFlag(true);
-        Notification saved = repository.save(notification);
-        streamService.sendNotification(username, saved);
+        streamService.sendNotification(username, notification);
+    }
+
+    /**
+     * Marks every unread notification of the user as read with a single
+     * UPDATE and asks the user's other open clients to reload.
+     *
+     * @return number of notifications that were unread
+     */
+    public int markAllRead(String username) {
+        Integer updated = transactionTemplate.execute(status -> repository.markAllRead(username));
+        // Subtract rather than zero the count, so notifications that arrive
+        // after the UPDATE stay counted.
+        if (updated != null && updated > 0) {
+            adjustUnread(username, -updated);
+        }
+        streamService.requestResync(username);
+        return updated != null ? updated : 0;
+    }
+
+    private AtomicLong unreadCounter(String username) {
+        long now = clock.millis();
+        return unreadCounts.compute(username, (key, cached) ->
+                cached != null && now < cached.expiresAt()
+                        ? cached
+                        : new UnreadCount(new AtomicLong(repository.countByUsernameAndReadFlagFalse(key)),
+                                now + unreadCountTtl.toMillis()))
+                .count();
+    }
+
+    /**
+     * Drops expired unread counts, so the cache only holds users who have
+     * polled within the TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.unread-count-ttl:30s}",
+            initialDelayString = "${app.notifications.unread-count-ttl:30s}")
+    public void evictExpiredUnreadCounts() {
+        long now = clock.millis();
+        unreadCounts.values().removeIf(cached -> now >= cached.expiresAt());
+    }
+
+    int cachedUnreadCounts() {
+        return unreadCounts.size();
+    }
+
+    private void adjustUnread(String username, long delta) {
+        // Users whose count has not been loaded yet pick the change up from
+        // the table when it is first read.
+        UnreadCount cached = unreadCounts.get(username);
+        if (cached != null) {
+            cached.count().updateAndGet(current -> Math.max(0L, current + delta));
+        }
+    }
+
+    private record UnreadCount(AtomicLong count, long expiresAt) {
+    }
+
+    private record Cursor(LocalDateTime timestamp, Long id) {
+
+        String encode() {
+            String raw = timestamp + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid notification cursor", ex);
+            }
+        }
     }
 }
@@ -1,65 +1,109 @@
 package com.bellingham.datafutures.service;
 
 import com.bellingham.datafutures.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class NotificationStreamService {
 
+    public static final String NOTIFICATION_EVENT_NAME = "notification";
+    public static final String RESYNC_EVENT_NAME = "resync";
     private static final long TIMEOUT = 0L;
+    private static final int QUEUE_CAPACITY = 64;
 
-    private final Map<String, CopyOnWriteArrayList<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    // Sent in place of dropped notifications so the client refetches its inbox.
+    private static final SseSubscriber.Frame RESYNC_FRAME =
+            SseSubscriber.Frame.json(RESYNC_EVENT_NAME, Map.of("reason", "overflow"));
+    // Sent after a bulk change the client cannot apply from individual events.
+    private static final SseSubscriber.Frame READ_ALL_FRAME =
+            SseSubscriber.Frame.json(RESYNC_EVENT_NAME, Map.of("reason", "read-all"));
 
-    public SseEmitter subscribe(String username) {
-        SseEmitter emitter = new SseEmitter(TIMEOUT);
-        emitters.computeIfAbsent(username, key -> new CopyOnWriteArrayList<>()).add(emitter);
+    private final Map<String, CopyOnWriteArrayList<SseSubscriber>> emitters = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberSequence = new AtomicLong();
+    private final DistributionSummary lag;
+    private final Counter dropped;
 
-        emitter.onCompletion(() -> removeEmitter(username, emitter));
-        emitter.onTimeout(() -> removeEmitter(username, emitter));
-        emitter.onError((ex) -> removeEmitter(username, emitter));
+    public NotificationStreamService(MeterRegistry meterRegistry) {
+        this.lag = meterRegistry.summary("sse.subscriber.lag", "stream", "notifications");
+        this.dropped = meterRegistry.counter("sse.subscriber.dropped", "stream", "notifications");
+        meterRegistry.gauge("sse.subscribers", Tags.of("stream", "notifications"), this,
+                NotificationStreamService::getSubscriberCount);
+        meterRegistry.gauge("sse.subscriber.max.lag", Tags.of("stream", "notifications"), this,
+                NotificationStreamService::getMaxLag);
+    }
 
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT);
+        SseSubscriber subscriber = new SseSubscriber(emitter, QUEUE_CAPACITY,
+                SseSubscriber.OverflowPolicy.RESYNC, RESYNC_FRAME, lag, dropped);
+        emitters.computeIfAbsent(username, key -> new CopyOnWriteArrayList<>()).add(subscriber);
+        subscriber.start("sse-notifications-" + subscriberSequence.incrementAndGet(),
+                () -> removeSubscriber(username, subscriber));
         return emitter;
     }
 
     public void sendNotification(String username, Notification notification) {
-        List<SseEmitter> userEmitters = emitters.get(username);
-        if (userEmitters == null || userEmitters.isEmpty()) {
+        List<SseSubscriber> userSubscribers = emitters.get(username);
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
             return;
         }
 
-        List<SseEmitter> deadEmitters = new ArrayList<>();
+        SseSubscriber.Frame frame = SseSubscriber.Frame.json(NOTIFICATION_EVENT_NAME, notification);
+        for (SseSubscriber subscriber : userSubscribers) {
+            subscriber.offer(frame);
+        }
+    }
 
-        for (SseEmitter emitter : userEmitters) {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name("notification")
-                        .data(notification));
-            } catch (IOException ex) {
-                deadEmitters.add(emitter);
-            }
+    public void sendNotifications(Collection<Notification> notifications) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        for (Notification notification : notifications) {
+            sendNotification(notification.getUsername(), notification);
         }
+    }
 
-        if (!deadEmitters.isEmpty()) {
-            userEmitters.removeAll(deadEmitters);
-            if (userEmitters.isEmpty()) {
-                emitters.remove(username);
-            }
+    public void requestResync(String username) {
+        List<SseSubscriber> userSubscribers = emitters.get(username);
+        if (userSubscribers == null) {
+            return;
+        }
+        for (SseSubscriber subscriber : userSubscribers) {
+            subscriber.offer(READ_ALL_FRAME);
         }
     }
 
-    private void removeEmitter(String username, SseEmitter emitter) {
-        List<SseEmitter> userEmitters = emitters.get(username);
-        if (userEmitters != null) {
-            userEmitters.remove(emitter);
-            if (userEmitters.isEmpty()) {
+    public int getSubscriberCount() {
+        return emitters.values().stream()
+                .mapToInt(List::size)
+                .sum();
+    }
+
+    public long getMaxLag() {
+        return emitters.values().stream()
+                .flatMap(List::stream)
+                .mapToLong(SseSubscriber::getLag)
+                .max()
+                .orElse(0L);
+    }
+
+    private void removeSubscriber(String username, SseSubscriber subscriber) {
+        List<SseSubscriber> userSubscribers = emitters.get(username);
+        if (userSubscribers != null) {
+            userSubscribers.remove(subscriber);
+            if (userSubscribers.isEmpty()) {
                 emitters.remove(username);
             }
         }
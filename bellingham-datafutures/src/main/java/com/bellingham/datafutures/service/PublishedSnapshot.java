@@ -0,0 +1,13 @@
+package com.bellingham.datafutures.service;
+
+/**
+ * The last published market snapshot as served to readers: the full book with
+ * an empty delta, already serialized, and tagged with the SSE event id of its
+ * sequence so the tag changes on every publish and across restarts.
+ */
+public record PublishedSnapshot(long sequence, String eventId, String json) {
+
+    public String etag() {
+        return "\"" + eventId + "\"";
+    }
+}
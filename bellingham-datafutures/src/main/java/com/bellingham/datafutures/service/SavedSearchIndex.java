@@ -0,0 +1,391 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.SavedSearch;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory matching index over saved searches. Each search is filed under
+ * its most selective criterion: searches with a term sit in an Aho–Corasick
+ * automaton run over the contract's title and seller, searches keyed only by
+ * seller in a hash index, and price-only searches in an interval tree. Only
+ * the candidates these structures return are checked against the full
+ * criteria, so matching a listing does not touch every saved search.
+ * <p>
+ * Structural changes mark the compiled automaton and interval tree stale;
+ * they are rebuilt on the next match.
+ */
+@Component
+public class SavedSearchIndex {
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Map<Long, Entry>> byTerm = new HashMap<>();
+    private final Map<String, Map<Long, Entry>> bySeller = new HashMap<>();
+    private final Map<Long, Entry> priceOnly = new HashMap<>();
+    private final Map<Long, Entry> unconstrained = new HashMap<>();
+    private TermAutomaton automaton;
+    private PriceIntervalTree intervals;
+    private boolean seeded;
+
+    public synchronized void seed(Collection<SavedSearch> savedSearches) {
+        entries.clear();
+        byTerm.clear();
+        bySeller.clear();
+        priceOnly.clear();
+        unconstrained.clear();
+        automaton = null;
+        intervals = null;
+        for (SavedSearch savedSearch : savedSearches) {
+            add(savedSearch);
+        }
+        seeded = true;
+    }
+
+    /**
+     * Seeds the index from {@code loader} unless it already is. The loader
+     * runs under the same lock as {@link #add} and {@link #remove}, so a
+     * change made while the snapshot is being read waits for the seed and is
+     * then applied on top of it instead of being overwritten.
+     */
+    public synchronized void seedIfNeeded(Supplier<? extends Collection<SavedSearch>> loader) {
+        if (!seeded) {
+            seed(loader.get());
+        }
+    }
+
+    /**
+     * Brings a seeded index in line with the table: entries whose id is no
+     * longer in {@code currentIds} are removed and ids it has not seen are
+     * loaded through {@code loader}. Picks up searches created or deleted on
+     * other nodes. Runs under the index lock for the same reason as
+     * {@link #seedIfNeeded}.
+     */
+    public synchronized void reconcile(Supplier<? extends Collection<Long>> currentIds,
+                                       Function<Set<Long>, ? extends Collection<SavedSearch>> loader) {
+        if (!seeded) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(currentIds.get());
+        for (Long id : List.copyOf(entries.keySet())) {
+            if (!missing.remove(id)) {
+                remove(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (SavedSearch savedSearch : loader.apply(missing)) {
+                add(savedSearch);
+            }
+        }
+    }
+
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    public synchronized void add(SavedSearch savedSearch) {
+        if (savedSearch == null || savedSearch.getId() == null) {
+            return;
+        }
+        remove(savedSearch.getId());
+
+        Entry entry = Entry.from(savedSearch);
+        entries.put(entry.id(), entry);
+        if (entry.term() != null) {
+            byTerm.computeIfAbsent(entry.term(), key -> new HashMap<>()).put(entry.id(), entry);
+            automaton = null;
+        } else if (entry.seller() != null) {
+            bySeller.computeIfAbsent(entry.seller(), key -> new HashMap<>()).put(entry.id(), entry);
+        } else if (entry.minPrice() != null || entry.maxPrice() != null) {
+            priceOnly.put(entry.id(), entry);
+            intervals = null;
+        } else {
+            unconstrained.put(entry.id(), entry);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        if (entry.term() != null) {
+            removeFrom(byTerm, entry.term(), id);
+            automaton = null;
+        } else if (entry.seller() != null) {
+            removeFrom(bySeller, entry.seller(), id);
+        } else if (priceOnly.remove(id) != null) {
+            intervals = null;
+        } else {
+            unconstrained.remove(id);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the saved searches matching the contract, ordered by id,
+     * excluding searches owned by the contract's creator.
+     */
+    public synchronized List<Entry> match(ForwardContract contract) {
+        String title = lower(contract.getTitle());
+        String seller = lower(contract.getSeller());
+        BigDecimal price = contract.getPrice();
+
+        Map<Long, Entry> candidates = new TreeMap<>();
+        if (!byTerm.isEmpty()) {
+            if (automaton == null) {
+                automaton = new TermAutomaton(byTerm.keySet());
+            }
+            for (String term : automaton.find(title, seller)) {
+                candidates.putAll(byTerm.get(term));
+            }
+        }
+        if (seller != null) {
+            candidates.putAll(bySeller.getOrDefault(seller, Map.of()));
+        }
+        if (price != null && !priceOnly.isEmpty()) {
+            if (intervals == null) {
+                intervals = new PriceIntervalTree(priceOnly.values());
+            }
+            intervals.stab(price, candidates);
+        }
+        candidates.putAll(unconstrained);
+
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates.values()) {
+            if (entry.matches(contract.getCreatorUsername(), title, seller, price)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    private static void removeFrom(Map<String, Map<Long, Entry>> index, String key, Long id) {
+        Map<Long, Entry> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String lower(String value) {
+        return StringUtils.hasText(value) ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public record Entry(Long id,
+                        String username,
+                        String name,
+                        String term,
+                        String seller,
+                        BigDecimal minPrice,
+                        BigDecimal maxPrice) {
+
+        static Entry from(SavedSearch savedSearch) {
+            return new Entry(
+                    savedSearch.getId(),
+                    savedSearch.getUsername(),
+                    savedSearch.getName(),
+                    lower(savedSearch.getSearchTerm()),
+                    lower(savedSearch.getSeller()),
+                    savedSearch.getMinPrice(),
+                    savedSearch.getMaxPrice());
+        }
+
+        private boolean matches(String creatorUsername, String title, String seller, BigDecimal price) {
+            if (!StringUtils.hasText(username) || username.equalsIgnoreCase(creatorUsername)) {
+                return false;
+            }
+            if (minPrice != null && (price == null || price.compareTo(minPrice) < 0)) {
+                return false;
+            }
+            if (maxPrice != null && (price == null || price.compareTo(maxPrice) > 0)) {
+                return false;
+            }
+            if (this.seller != null && !this.seller.equals(seller)) {
+                return false;
+            }
+            return term == null
+                    || (title != null && title.contains(term))
+                    || (seller != null && seller.contains(term));
+        }
+    }
+
+    /**
+     * Aho–Corasick automaton over the lower-cased search terms; reports every
+     * term occurring in any of the scanned texts in one pass per text.
+     */
+    private static final class TermAutomaton {
+
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<Integer> fail = new ArrayList<>();
+        private final List<Integer> dictionary = new ArrayList<>();
+        private final List<String> terms = new ArrayList<>();
+
+        private TermAutomaton(Collection<String> keywords) {
+            newNode();
+            for (String keyword : keywords) {
+                int node = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    Integer next = children.get(node).get(c);
+                    if (next == null) {
+                        next = newNode();
+                        children.get(node).put(c, next);
+                    }
+                    node = next;
+                }
+                terms.set(node, keyword);
+            }
+            link();
+        }
+
+        private int newNode() {
+            children.add(new HashMap<>());
+            fail.add(0);
+            dictionary.add(-1);
+            terms.add(null);
+            return children.size() - 1;
+        }
+
+        private void link() {
+            ArrayDeque<Integer> queue = new ArrayDeque<>(children.get(0).values());
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (Map.Entry<Character, Integer> edge : children.get(node).entrySet()) {
+                    int child = edge.getValue();
+                    int state = fail.get(node);
+                    while (state != 0 && !children.get(state).containsKey(edge.getKey())) {
+                        state = fail.get(state);
+                    }
+                    Integer target = children.get(state).get(edge.getKey());
+                    int failure = target != null && target != child ? target : 0;
+                    fail.set(child, failure);
+                    dictionary.set(child, terms.get(failure) != null ? failure : dictionary.get(failure));
+                    queue.add(child);
+                }
+            }
+        }
+
+        private Set<String> find(String... texts) {
+            Set<String> found = new HashSet<>();
+            for (String text : texts) {
+                if (text == null) {
+                    continue;
+                }
+                int state = 0;
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    while (state != 0 && !children.get(state).containsKey(c)) {
+                        state = fail.get(state);
+                    }
+                    state = children.get(state).getOrDefault(c, 0);
+                    for (int out = terms.get(state) != null ? state : dictionary.get(state);
+                         out > 0;
+                         out = dictionary.get(out)) {
+                        found.add(terms.get(out));
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Centered interval tree over price bounds, where a missing bound is
+     * unbounded. Stabbing a price visits O(log n) nodes plus the matches.
+     */
+    private static final class PriceIntervalTree {
+
+        private static final Comparator<BigDecimal> LOW_ORDER =
+                Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder());
+        private static final Comparator<BigDecimal> HIGH_ORDER =
+                Comparator.nullsFirst(Comparator.<BigDecimal>reverseOrder());
+
+        private final Node root;
+
+        private PriceIntervalTree(Collection<Entry> entries) {
+            this.root = build(new ArrayList<>(entries));
+        }
+
+        private void stab(BigDecimal price, Map<Long, Entry> into) {
+            Node node = root;
+            while (node != null) {
+                int side = price.compareTo(node.center);
+                if (side <= 0) {
+                    for (Entry entry : node.byLow) {
+                        if (entry.minPrice() != null && entry.minPrice().compareTo(price) > 0) {
+                            break;
+                        }
+                        into.put(entry.id(), entry);
+                    }
+                } else {
+                    for (Entry entry : node.byHigh) {
+                        if (entry.maxPrice() != null && entry.maxPrice().compareTo(price) < 0) {
+                            break;
+                        }
+                        into.put(entry.id(), entry);
+                    }
+                }
+                node = side < 0 ? node.left : side > 0 ? node.right : null;
+            }
+        }
+
+        private static Node build(List<Entry> entries) {
+            if (entries.isEmpty()) {
+                return null;
+            }
+            List<BigDecimal> endpoints = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.minPrice() != null) {
+                    endpoints.add(entry.minPrice());
+                }
+                if (entry.maxPrice() != null) {
+                    endpoints.add(entry.maxPrice());
+                }
+            }
+            endpoints.sort(Comparator.naturalOrder());
+            BigDecimal center = endpoints.get(endpoints.size() / 2);
+
+            List<Entry> left = new ArrayList<>();
+            List<Entry> right = new ArrayList<>();
+            List<Entry> overlapping = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.maxPrice() != null && entry.maxPrice().compareTo(center) < 0) {
+                    left.add(entry);
+                } else if (entry.minPrice() != null && entry.minPrice().compareTo(center) > 0) {
+                    right.add(entry);
+                } else {
+                    overlapping.add(entry);
+                }
+            }
+
+            List<Entry> byLow = new ArrayList<>(overlapping);
+            byLow.sort(Comparator.comparing(Entry::minPrice, LOW_ORDER));
+            List<Entry> byHigh = new ArrayList<>(overlapping);
+            byHigh.sort(Comparator.comparing(Entry::maxPrice, HIGH_ORDER));
+            return new Node(center, byLow, byHigh, build(left), build(right));
+        }
+
+        private record Node(BigDecimal center, List<Entry> byLow, List<Entry> byHigh, Node left, Node right) {}
+    }
+}
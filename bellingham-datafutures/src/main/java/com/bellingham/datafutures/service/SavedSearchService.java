@@ -2,27 +2,70 @@ package com.bellingham.datafutures.service;
 
 import com.bellingham.datafutures.dto.SavedSearchRequest;
 import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.Notification;
 import com.bellingham.datafutures.model.SavedSearch;
 import com.bellingham.datafutures.repository.SavedSearchRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class SavedSearchService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SavedSearchService.class);
+    private static final int PENDING_LISTINGS = 1_000;
+
     private final SavedSearchRepository repository;
     private final NotificationService notificationService;
-
-    public SavedSearchService(SavedSearchRepository repository, NotificationService notificationService) {
+    private final SavedSearchIndex index;
+    // Matching and fan-out run here so listing latency does not depend on how
+    // many searches match. When the backlog is full the listing thread runs
+    // the fan-out itself rather than dropping it.
+    private final ExecutorService notifier = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(PENDING_LISTINGS),
+            runnable -> {
+                Thread thread = new Thread(runnable, "saved-search-notifier");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    public SavedSearchService(SavedSearchRepository repository,
+                              NotificationService notificationService,
+                              SavedSearchIndex index) {
         this.repository = repository;
         this.notificationService = notificationService;
+        this.index = index;
+    }
+
+    /**
+     * Reconciles the matching index with the table. Searches created or
+     * deleted through this node are applied at once; this catches those made
+     * on other nodes. Compares every id rather than loading ids above the
+     * highest seen, since each node allocates ids from its own block of the
+     * sequence.
+     */
+    @Scheduled(fixedDelayString = "${app.saved-search.refresh-interval:30s}",
+            initialDelayString = "${app.saved-search.refresh-interval:30s}")
+    public void refreshIndex() {
+        index.reconcile(repository::findAllIds, repository::findAllById);
     }
 
     public List<SavedSearch> getSavedSearches(String username) {
@@ -54,11 +97,14 @@ public class SavedSearchService {
         savedSearch.setSeller(normalizeText(request.getSeller()));
         savedSearch.setCreatedAt(LocalDateTime.now());
 
+        SavedSearch saved;
         try {
-            return repository.save(savedSearch);
+            saved = repository.save(savedSearch);
         } catch (DataIntegrityViolationException ex) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "You already have a saved search with that name.", ex);
         }
+        index.add(saved);
+        return saved;
     }
 
     public void deleteSavedSearch(Long id, String username) {
@@ -70,70 +116,81 @@ public class SavedSearchService {
         }
 
         repository.delete(savedSearch);
+        index.remove(savedSearch.getId());
     }
 
-    public void notifyWatchers(ForwardContract contract) {
-        if (contract == null || contract.getStatus() == null ||
-                !"Available".equalsIgnoreCase(contract.getStatus())) {
-            return;
-        }
-
-        List<SavedSearch> savedSearches = repository.findAll();
-        if (savedSearches.isEmpty()) {
-            return;
+    @EventListener
+    public void onContractLifecycle(ContractLifecycleEvent event) {
+        if (event.type() == ContractLifecycleEvent.Type.CREATED
+                || event.type() == ContractLifecycleEvent.Type.LISTED) {
+            ForwardContract contract = event.contract();
+            notifier.execute(() -> {
+                try {
+                    notifyWatchers(contract);
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Failed to notify saved search watchers for contract {}", contract.getId(), ex);
+                }
+            });
         }
+    }
 
-        for (SavedSearch savedSearch : savedSearches) {
-            if (!StringUtils.hasText(savedSearch.getUsername())) {
-                continue;
+    @EventListener
+    public void onContractsImported(ContractsImportedEvent event) {
+        List<ForwardContract> contracts = event.contracts();
+        notifier.execute(() -> {
+            try {
+                notifyWatchers(contracts);
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Failed to notify saved search watchers for {} imported contracts", contracts.size(), ex);
             }
-
-            if (savedSearch.getUsername().equalsIgnoreCase(contract.getCreatorUsername())) {
-                continue;
-            }
-
-            if (matches(savedSearch, contract)) {
-                String title = StringUtils.hasText(contract.getTitle()) ? contract.getTitle() : "A contract";
-                String message = String.format("New contract \"%s\" matches your saved search \"%s\".",
-                        title,
-                        savedSearch.getName());
-                notificationService.notifyUser(savedSearch.getUsername(), message, contract.getId());
-            }
-        }
+        });
     }
 
-    private boolean matches(SavedSearch savedSearch, ForwardContract contract) {
-        BigDecimal price = contract.getPrice();
+    public void notifyWatchers(ForwardContract contract) {
+        notifyWatchers(contract == null ? List.of() : List.of(contract));
+    }
 
-        if (savedSearch.getMinPrice() != null) {
-            if (price == null || price.compareTo(savedSearch.getMinPrice()) < 0) {
-                return false;
+    /**
+     * Matches every contract against the saved searches and delivers all the
+     * resulting notifications as one fan-out.
+     */
+    public void notifyWatchers(Collection<ForwardContract> contracts) {
+        List<Notification> notifications = new ArrayList<>();
+        for (ForwardContract contract : contracts) {
+            if (contract.getStatus() == null ||
+                    !"Available".equalsIgnoreCase(contract.getStatus())) {
+                continue;
             }
-        }
 
-        if (savedSearch.getMaxPrice() != null) {
-            if (price == null || price.compareTo(savedSearch.getMaxPrice()) > 0) {
-                return false;
-            }
-        }
+            index.seedIfNeeded(repository::findAll);
 
-        if (StringUtils.hasText(savedSearch.getSeller())) {
-            String seller = contract.getSeller();
-            if (seller == null || !seller.equalsIgnoreCase(savedSearch.getSeller())) {
-                return false;
+            String title = StringUtils.hasText(contract.getTitle()) ? contract.getTitle() : "A contract";
+            for (SavedSearchIndex.Entry match : index.match(contract)) {
+                Notification notification = new Notification();
+                notification.setUsername(match.username());
+                notification.setMessage(String.format("New contract \"%s\" matches your saved search \"%s\".",
+                        title,
+                        match.name()));
+                notification.setContractId(contract.getId());
+                notifications.add(notification);
             }
         }
+        if (!notifications.isEmpty()) {
+            notificationService.notifyUsers(notifications);
+        }
+    }
 
-        if (StringUtils.hasText(savedSearch.getSearchTerm())) {
-            String term = savedSearch.getSearchTerm().toLowerCase();
-            String title = contract.getTitle() != null ? contract.getTitle().toLowerCase() : "";
-            String seller = contract.getSeller() != null ? contract.getSeller().toLowerCase() : "";
-            if (!title.contains(term) && !seller.contains(term)) {
-                return false;
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdown();
+        try {
+            if (!notifier.awaitTermination(30, TimeUnit.SECONDS)) {
+                notifier.shutdownNow();
             }
+        } catch (InterruptedException ex) {
+            notifier.shutdownNow();
+            Thread.currentThread().interrupt();
         }
-
-        return true;
     }
 
     private String normalizeText(String value) {
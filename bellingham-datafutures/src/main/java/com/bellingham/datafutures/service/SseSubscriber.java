@@ -0,0 +1,170 @@
+package com.bellingham.datafutures.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wraps an {@link SseEmitter} with a bounded outbound queue drained by its own
+ * virtual thread, so a slow client only ever delays itself. When the queue is
+ * full the configured {@link OverflowPolicy} decides what gets dropped.
+ * Waiting is done on j.u.c. locks rather than monitors so idle drainers do not
+ * pin their carrier threads.
+ */
+final class SseSubscriber {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SseSubscriber.class);
+
+    enum OverflowPolicy {
+        /** Discard the oldest queued frame; suited to latest-wins market data. */
+        DROP_OLDEST,
+        /** Discard everything queued and ask the client to refetch its state. */
+        RESYNC
+    }
+
+    record Frame(String id, String name, Object data, MediaType mediaType) {
+
+        static Frame json(String name, Object data) {
+            return json(null, name, data);
+        }
+
+        static Frame json(String id, String name, Object data) {
+            return new Frame(id, name, data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Frame resyncFrame;
+    private final DistributionSummary lag;
+    private final Counter dropped;
+    private final BlockingDeque<Frame> queue;
+    private final ReentrantLock offerLock = new ReentrantLock();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private Runnable onClose = () -> { };
+    private Thread drainer;
+
+    SseSubscriber(SseEmitter emitter,
+                  int capacity,
+                  OverflowPolicy policy,
+                  Frame resyncFrame,
+                  DistributionSummary lag,
+                  Counter dropped) {
+        this.emitter = emitter;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.resyncFrame = resyncFrame;
+        this.lag = lag;
+        this.dropped = dropped;
+        this.queue = new LinkedBlockingDeque<>(this.capacity + 1);
+    }
+
+    SseSubscriber start(String threadName, Runnable onClose) {
+        this.onClose = onClose;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(ex -> close());
+        drainer = Thread.ofVirtual().name(threadName).start(this::drain);
+        return this;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    /**
+     * Queues a frame without blocking the caller.
+     */
+    void offer(Frame frame) {
+        if (closed.get()) {
+            return;
+        }
+        int depth;
+        offerLock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                overflow();
+            }
+            queue.offerLast(frame);
+            depth = queue.size();
+        } finally {
+            offerLock.unlock();
+        }
+        lag.record(depth);
+    }
+
+    long getLag() {
+        return queue.size();
+    }
+
+    long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        queue.clear();
+        if (drainer != null && drainer != Thread.currentThread()) {
+            drainer.interrupt();
+        }
+        onClose.run();
+    }
+
+    private void overflow() {
+        int discarded;
+        if (policy == OverflowPolicy.RESYNC) {
+            discarded = queue.size();
+            queue.clear();
+            if (resyncFrame != null) {
+                // Reserve the head of the queue for the resync marker.
+                queue.addLast(resyncFrame);
+            }
+        } else {
+            discarded = queue.pollFirst() != null ? 1 : 0;
+        }
+        droppedCount.addAndGet(discarded);
+        dropped.increment(discarded);
+    }
+
+    private void drain() {
+        while (!closed.get()) {
+            Frame frame;
+            try {
+                frame = queue.takeFirst();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                SseEmitter.SseEventBuilder event = SseEmitter.event().name(frame.name());
+                if (frame.id() != null) {
+                    event.id(frame.id());
+                }
+                emitter.send(event.data(frame.data(), frame.mediaType()));
+                deliveredCount.incrementAndGet();
+            } catch (IOException | IllegalStateException ex) {
+                LOGGER.debug("Dropping SSE subscriber after failed send", ex);
+                close();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+-- One-time conversion of contract_activity into a table range-partitioned by
+-- month on "timestamp". Hibernate's ddl-auto cannot create partitioned tables,
+-- so run this once per PostgreSQL database (11+) while the API is stopped.
+-- Afterwards ActivityPartitionService creates upcoming months and archives
+-- partitions older than app.activity.retention-months.
+
+BEGIN;
+
+ALTER TABLE contract_activity RENAME TO contract_activity_legacy;
+ALTER INDEX IF EXISTS idx_activity_contract_timestamp RENAME TO idx_activity_legacy_contract_timestamp;
+ALTER INDEX IF EXISTS idx_activity_action_timestamp RENAME TO idx_activity_legacy_action_timestamp;
+
+CREATE SEQUENCE contract_activity_id_seq;
+SELECT setval('contract_activity_id_seq', COALESCE((SELECT MAX(id) FROM contract_activity_legacy), 0) + 1, false);
+
+-- The partition key has to be part of the primary key.
+CREATE TABLE contract_activity (
+    id bigint NOT NULL DEFAULT nextval('contract_activity_id_seq'),
+    contract_id bigint REFERENCES forward_contract (id),
+    "timestamp" timestamp(6) NOT NULL,
+    username varchar(255),
+    action varchar(255),
+    PRIMARY KEY (id, "timestamp")
+) PARTITION BY RANGE ("timestamp");
+
+ALTER SEQUENCE contract_activity_id_seq OWNED BY contract_activity.id;
+
+CREATE INDEX idx_activity_contract_timestamp ON contract_activity (contract_id, "timestamp");
+CREATE INDEX idx_activity_action_timestamp ON contract_activity (action, "timestamp");
+
+-- Catches rows outside every monthly range so inserts never fail.
+CREATE TABLE contract_activity_default PARTITION OF contract_activity DEFAULT;
+
+-- One partition per month already present in the legacy table, through next month.
+DO $$
+DECLARE
+    month_start date;
+    last_month date := date_trunc('month', now() + interval '1 month')::date;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN("timestamp"), now()))::date
+      INTO month_start
+      FROM contract_activity_legacy;
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF contract_activity FOR VALUES FROM (%L) TO (%L)',
+            'contract_activity_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO contract_activity (id, contract_id, "timestamp", username, action)
+SELECT id, contract_id, COALESCE("timestamp", now()), username, action
+  FROM contract_activity_legacy;
+
+DROP TABLE contract_activity_legacy;
+
+COMMIT;
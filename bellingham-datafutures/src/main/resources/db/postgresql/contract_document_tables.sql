@@ -0,0 +1,91 @@
+-- One-time move of agreement text and signatures off forward_contract into
+-- contract_agreement (one row per distinct text, keyed by its SHA-256) and
+-- contract_signatures (one row per signed contract). Hibernate's ddl-auto
+-- adds the new tables but never copies data or drops the old columns, so run
+-- this once per PostgreSQL database (11+) while the API is stopped, ideally
+-- before the first start of the version that reads the new tables.
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+CREATE TABLE IF NOT EXISTS contract_agreement (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    content_hash varchar(64) NOT NULL,
+    content text NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_agreement_content_hash ON contract_agreement (content_hash);
+
+CREATE TABLE IF NOT EXISTS contract_signatures (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    seller_signature text,
+    buyer_signature text
+);
+
+ALTER TABLE forward_contract
+    ADD COLUMN IF NOT EXISTS agreement_id bigint REFERENCES contract_agreement (id),
+    ADD COLUMN IF NOT EXISTS signatures_id bigint UNIQUE REFERENCES contract_signatures (id);
+
+DO $$
+DECLARE
+    -- Older schemas stored the @Lob signatures as large objects (oid).
+    seller_expr text := 'seller_signature';
+    buyer_expr text := 'buyer_signature';
+    offset_id bigint;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'forward_contract' AND column_name = 'agreement_text') THEN
+        RAISE NOTICE 'forward_contract.agreement_text is gone; nothing to migrate';
+        RETURN;
+    END IF;
+
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'forward_contract' AND column_name = 'seller_signature') = 'oid' THEN
+        seller_expr := 'convert_from(lo_get(seller_signature), ''UTF8'')';
+        buyer_expr := 'convert_from(lo_get(buyer_signature), ''UTF8'')';
+    END IF;
+
+    INSERT INTO contract_agreement (content_hash, content)
+    SELECT DISTINCT encode(digest(f.agreement_text, 'sha256'), 'hex'), f.agreement_text
+    FROM forward_contract f
+    WHERE f.agreement_text IS NOT NULL
+      AND NOT EXISTS (SELECT 1 FROM contract_agreement a WHERE a.content = f.agreement_text);
+
+    UPDATE forward_contract f
+    SET agreement_id = (SELECT MIN(a.id) FROM contract_agreement a
+                        WHERE a.content_hash = encode(digest(f.agreement_text, 'sha256'), 'hex')
+                          AND a.content = f.agreement_text)
+    WHERE f.agreement_text IS NOT NULL AND f.agreement_id IS NULL;
+
+    -- Signature rows take the contract id plus an offset past any existing
+    -- rows, which keeps the contract-to-row mapping a plain join.
+    SELECT COALESCE(MAX(id), 0) INTO offset_id FROM contract_signatures;
+    EXECUTE format(
+        'INSERT INTO contract_signatures (id, seller_signature, buyer_signature) '
+        'SELECT id + %s, %s, %s FROM forward_contract '
+        'WHERE signatures_id IS NULL AND (seller_signature IS NOT NULL OR buyer_signature IS NOT NULL)',
+        offset_id, seller_expr, buyer_expr);
+    EXECUTE format(
+        'UPDATE forward_contract SET signatures_id = id + %s '
+        'WHERE signatures_id IS NULL AND (seller_signature IS NOT NULL OR buyer_signature IS NOT NULL)',
+        offset_id);
+    PERFORM setval(pg_get_serial_sequence('contract_signatures', 'id'),
+                   COALESCE((SELECT MAX(id) FROM contract_signatures), 0) + 1, false);
+
+    IF seller_expr <> 'seller_signature' THEN
+        PERFORM lo_unlink(oid_value)
+        FROM (SELECT seller_signature AS oid_value FROM forward_contract WHERE seller_signature IS NOT NULL
+              UNION
+              SELECT buyer_signature FROM forward_contract WHERE buyer_signature IS NOT NULL) large_objects;
+    END IF;
+
+    ALTER TABLE forward_contract
+        DROP COLUMN agreement_text,
+        DROP COLUMN seller_signature,
+        DROP COLUMN buyer_signature;
+END $$;
+
+COMMIT;
+
+-- Reclaim the space the wide columns held.
+VACUUM FULL ANALYZE forward_contract;
@@ -0,0 +1,15 @@
+-- One-time rewrite of forward_contract.status onto the spellings the
+-- application writes. Queries compare status exactly so the (status, ...)
+-- indexes can serve them, so rows stored in another case would stop matching.
+-- Only rows that differ are touched; it is safe to run with the API up and
+-- to run more than once.
+
+BEGIN;
+
+UPDATE forward_contract f
+   SET status = s.canonical
+  FROM (VALUES ('Available'), ('Purchased'), ('Closed'), ('Void'), ('Delivered')) AS s (canonical)
+ WHERE lower(btrim(f.status)) = lower(s.canonical)
+   AND f.status <> s.canonical;
+
+COMMIT;
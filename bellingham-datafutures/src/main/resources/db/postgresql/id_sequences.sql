@@ -0,0 +1,36 @@
+-- One-time switch of forward_contract, contract_signatures, contract_activity,
+-- notification and saved_searches from identity columns to sequences that hand
+-- out ids in blocks of 50 (the allocationSize of their @SequenceGenerator), so
+-- Hibernate can batch their inserts. Hibernate's ddl-auto would create the
+-- sequences starting at 1 and collide with existing rows, so run this once per
+-- PostgreSQL database while the API is stopped, after
+-- contract_activity_partitioning.sql and contract_document_tables.sql.
+
+BEGIN;
+
+DO $$
+DECLARE
+    tbl text;
+BEGIN
+    FOREACH tbl IN ARRAY ARRAY['forward_contract', 'contract_signatures', 'contract_activity',
+                               'notification', 'saved_searches'] LOOP
+        IF to_regclass(tbl) IS NULL THEN
+            RAISE NOTICE '% does not exist yet; Hibernate will create its sequence', tbl;
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', tbl || '_seq');
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)',
+                       tbl || '_seq', tbl);
+
+        -- Ids now come from the application only. A column default would draw
+        -- from the same blocks Hibernate has already reserved.
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = tbl AND column_name = 'id' AND is_identity = 'YES') THEN
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY', tbl);
+        END IF;
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', tbl);
+    END LOOP;
+END $$;
+
+COMMIT;
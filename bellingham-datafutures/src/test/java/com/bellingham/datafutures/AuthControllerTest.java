@@ -13,6 +13,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,8 +37,12 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.bellingham.datafutures.config.JwtProperties;
 import com.bellingham.datafutures.controller.AuthController;
+import com.bellingham.datafutures.model.UserPermission;
 import com.bellingham.datafutures.repository.UserRepository;
+import com.bellingham.datafutures.security.AuthenticatedUser;
+import com.bellingham.datafutures.security.CustomUserDetailsService;
 import com.bellingham.datafutures.security.JwtUtil;
+import com.bellingham.datafutures.security.VerifiedToken;
 
 @WebMvcTest(AuthController.class)
 @AutoConfigureMockMvc(addFilters = false)
@@ -53,15 +59,22 @@ class AuthControllerTest {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     @BeforeEach
     void setUpMocks() {
         when(authenticationManager.authenticate(any(Authentication.class)))
                 .thenReturn(new UsernamePasswordAuthenticationToken("user", "pass"));
-        when(jwtUtil.generateToken("user")).thenReturn("token-value");
+        AuthenticatedUser user = new AuthenticatedUser("user", "hash", "ROLE_USER",
+                EnumSet.of(UserPermission.BUY), 0L);
+        when(userDetailsService.loadCachedUser("user")).thenReturn(user);
+        when(jwtUtil.generateToken(user)).thenReturn("token-value");
         when(jwtUtil.extractExpiration("token-value"))
                 .thenReturn(Date.from(FIXED_EXPIRY.truncatedTo(ChronoUnit.MILLIS)));
-        when(jwtUtil.validateToken("token-value")).thenReturn(true);
-        when(jwtUtil.extractUsername("token-value")).thenReturn("user");
+        when(jwtUtil.verify("token-value")).thenReturn(Optional.of(
+                new VerifiedToken("user", "key-a", FIXED_EXPIRY.truncatedTo(ChronoUnit.MILLIS),
+                        "ROLE_USER", EnumSet.of(UserPermission.BUY), 0L)));
     }
 
     @Test
@@ -95,7 +108,10 @@ class AuthControllerTest {
         Authentication authResult = new UsernamePasswordAuthenticationToken(details, "pass", details.getAuthorities());
 
         when(authenticationManager.authenticate(any(Authentication.class))).thenReturn(authResult);
-        when(jwtUtil.generateToken("CanonicalUser")).thenReturn("token-value");
+        AuthenticatedUser canonical = new AuthenticatedUser("CanonicalUser", "hash", "ROLE_USER",
+                EnumSet.of(UserPermission.BUY), 0L);
+        when(userDetailsService.loadCachedUser("CanonicalUser")).thenReturn(canonical);
+        when(jwtUtil.generateToken(canonical)).thenReturn("token-value");
         when(jwtUtil.extractExpiration("token-value"))
                 .thenReturn(Date.from(FIXED_EXPIRY.truncatedTo(ChronoUnit.MILLIS)));
 
@@ -161,8 +177,8 @@ class AuthControllerTest {
         }
 
         @Bean
-        org.springframework.security.core.userdetails.UserDetailsService userDetailsService() {
-            return Mockito.mock(org.springframework.security.core.userdetails.UserDetailsService.class);
+        CustomUserDetailsService userDetailsService() {
+            return Mockito.mock(CustomUserDetailsService.class);
         }
     }
 }
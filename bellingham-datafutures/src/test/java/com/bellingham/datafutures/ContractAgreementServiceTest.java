@@ -0,0 +1,68 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.model.ContractAgreement;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ContractAgreementRepository;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.service.ContractAgreementService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ContractAgreementService.class)
+@ActiveProfiles("test")
+class ContractAgreementServiceTest {
+
+    @Autowired
+    private ContractAgreementService agreementService;
+
+    @Autowired
+    private ContractAgreementRepository agreementRepository;
+
+    @Autowired
+    private ForwardContractRepository contractRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void identicalAgreementsAreStoredOnce() {
+        ContractAgreement first = agreementService.intern("Standard terms");
+        ContractAgreement second = agreementService.intern("Standard terms");
+        ContractAgreement other = agreementService.intern("Bespoke terms");
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(other.getId()).isNotEqualTo(first.getId());
+        assertThat(agreementRepository.count()).isEqualTo(2);
+        assertThat(agreementService.intern(null)).isNull();
+    }
+
+    @Test
+    void agreementAndSignaturesLoadOnlyThroughTheirFetchPlans() {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Contract");
+        contract.setStatus("Available");
+        contract.setAgreement(agreementService.intern("Standard terms"));
+        contract.setSellerSignature("seller-signature");
+        contract.setBuyerSignature("buyer-signature");
+        Long id = contractRepository.saveAndFlush(contract).getId();
+        entityManager.clear();
+
+        ForwardContract row = contractRepository.findById(id).orElseThrow();
+        assertThat(Hibernate.isInitialized(row.getAgreement())).isFalse();
+        entityManager.clear();
+
+        ForwardContract detail = contractRepository.findDetailById(id).orElseThrow();
+        assertThat(Hibernate.isInitialized(detail.getAgreement())).isTrue();
+        assertThat(detail.getAgreementText()).isEqualTo("Standard terms");
+        assertThat(detail.getSellerSignature()).isEqualTo("seller-signature");
+        assertThat(detail.getBuyerSignature()).isEqualTo("buyer-signature");
+    }
+}
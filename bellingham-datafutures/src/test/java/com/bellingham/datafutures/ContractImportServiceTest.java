@@ -0,0 +1,151 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.dto.ContractImportResult;
+import com.bellingham.datafutures.dto.ForwardContractCreateRequest;
+import com.bellingham.datafutures.model.ContractAgreement;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ContractAgreementRepository;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.ContractImportService;
+import com.bellingham.datafutures.service.ContractLifecycleEvent;
+import com.bellingham.datafutures.service.ContractsImportedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class ContractImportServiceTest {
+
+    private static final Function<ForwardContractCreateRequest, ForwardContract> MAPPER = request -> {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle(request.getTitle());
+        contract.setPrice(request.getPrice());
+        contract.setDeliveryDate(request.getDeliveryDate());
+        contract.setDataDescription(request.getDataDescription());
+        contract.setRequiredClearanceRoles(request.getRequiredClearanceRoles());
+        contract.setStatus("Available");
+        contract.setCreatorUsername("seller");
+        return contract;
+    };
+
+    @Autowired
+    private ContractImportService importService;
+
+    @Autowired
+    private ForwardContractRepository contractRepository;
+
+    @Autowired
+    private ContractAgreementRepository agreementRepository;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private ActivityLogService activityLogService;
+
+    @AfterEach
+    void tearDown() {
+        contractRepository.deleteAll();
+        agreementRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void importsValidNdjsonRowsInBatchesAndReportsTheRest() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            body.append(row("Feed " + i, "Shared licence terms")).append('\n');
+            if (i == 10) {
+                body.append("{\"title\": \"broken\"\n");
+            }
+            if (i == 60) {
+                body.append('\n').append(row("", null)).append('\n');
+            }
+        }
+
+        ContractImportResult result = importService.importContracts(stream(body.toString()),
+                ContractImportService.Format.NDJSON, "seller", MAPPER);
+
+        assertThat(result.received()).isEqualTo(122);
+        assertThat(result.imported()).isEqualTo(120);
+        assertThat(result.createdIds()).hasSize(120).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(result.errors()).extracting(ContractImportResult.RowError::line).containsExactly(12L, 64L);
+        assertThat(result.errors().get(0).message()).startsWith("Malformed JSON");
+        assertThat(result.errors().get(1).message()).contains("title must not be blank");
+
+        List<ForwardContract> saved = contractRepository.findAllById(result.createdIds());
+        assertThat(saved).hasSize(120).allSatisfy(contract -> {
+            assertThat(contract.getStatus()).isEqualTo("Available");
+            assertThat(contract.getCreatorUsername()).isEqualTo("seller");
+        });
+        List<ContractAgreement> agreements = agreementRepository.findAll();
+        assertThat(agreements).singleElement()
+                .extracting(ContractAgreement::getContent).isEqualTo("Shared licence terms");
+
+        assertThat(events.stream(ContractLifecycleEvent.class)).isEmpty();
+        assertThat(events.stream(ContractsImportedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.contracts()).hasSize(120));
+        verify(activityLogService, times(120)).record(any(ForwardContract.class), eq("seller"), eq("Created contract"));
+    }
+
+    @Test
+    void importsQuotedCsvFieldsAndListColumns() {
+        String csv = """
+                title,price,deliveryDate,deliveryFormat,platformName,dataDescription,effectiveDate,requiredClearanceRoles
+                "Weather, hourly",12.50,2031-01-01,API,Acme,"Line one
+                ""line two""\",2030-01-01,ROLE_TRADER; ROLE_ANALYST
+                Prices,not-a-number,2031-01-01,API,Acme,Daily closes,2030-01-01,
+                Short row,1
+                """;
+
+        ContractImportResult result = importService.importContracts(stream(csv),
+                ContractImportService.Format.CSV, "seller", MAPPER);
+
+        assertThat(result.received()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).extracting(ContractImportResult.RowError::line).containsExactly(4L, 5L);
+        assertThat(result.errors().get(0).message()).startsWith("Invalid value");
+        assertThat(result.errors().get(1).message()).contains("Expected 8 columns");
+
+        ForwardContract saved = contractRepository.findDetailById(result.createdIds().get(0)).orElseThrow();
+        assertThat(saved.getTitle()).isEqualTo("Weather, hourly");
+        assertThat(saved.getPrice()).isEqualByComparingTo("12.50");
+        assertThat(saved.getDataDescription()).isEqualTo("Line one\n\"line two\"");
+        assertThat(saved.getRequiredClearanceRoles()).containsExactlyInAnyOrder("ROLE_TRADER", "ROLE_ANALYST");
+    }
+
+    private static String row(String title, String agreementText) {
+        return "{\"title\":\"" + title + "\",\"price\":" + BigDecimal.TEN
+                + ",\"deliveryDate\":\"" + LocalDate.of(2031, 1, 1)
+                + "\",\"deliveryFormat\":\"API\",\"platformName\":\"Acme\",\"dataDescription\":\"Feed\""
+                + ",\"effectiveDate\":\"" + LocalDate.of(2030, 1, 1) + "\""
+                + (agreementText == null ? "" : ",\"agreementText\":\"" + agreementText + "\"")
+                + "}";
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
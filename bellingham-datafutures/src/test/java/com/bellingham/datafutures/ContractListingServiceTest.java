@@ -0,0 +1,122 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.dto.ContractPage;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.service.ContractListingService;
+import com.bellingham.datafutures.service.ContractListingService.Listing;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(ContractListingService.class)
+@ActiveProfiles("test")
+class ContractListingServiceTest {
+
+    @Autowired
+    private ContractListingService listingService;
+
+    @Autowired
+    private ForwardContractRepository repository;
+
+    @Test
+    void walksAvailableContractsByPriceWithTiesAndMissingPrices() {
+        ForwardContract a = save("20", "Available", "alice");
+        ForwardContract b = save("10", "Available", "alice");
+        ForwardContract c = save(null, "Available", "bob");
+        ForwardContract d = save("10", "Available", "bob");
+        save("1", "Purchased", "bob");
+        ForwardContract e = save(null, "Available", "carol");
+
+        List<Long> ids = walk(Listing.AVAILABLE, null, "price", 2);
+
+        assertThat(ids).containsExactly(b.getId(), d.getId(), a.getId(), c.getId(), e.getId());
+    }
+
+    @Test
+    void walksOwnContractsByIdAndCountsOnlyWhenAsked() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(save(String.valueOf(i), "Available", "alice").getId());
+        }
+        save("3", "Available", "bob");
+
+        ContractPage first = listingService.list(Listing.MY, "alice", null, 3, null, true);
+        assertThat(first.totalElements()).isEqualTo(7);
+        assertThat(listingService.list(Listing.MY, "alice", null, 3, null, false).totalElements()).isNull();
+
+        assertThat(walk(Listing.MY, "alice", null, 3)).isEqualTo(expected);
+    }
+
+    @Test
+    void historyMergesBoughtAndSoldContractsWithoutDuplicates() {
+        save("5", "Available", "alice");
+        ForwardContract boughtA = closed(save("40", "Closed", "bob"), "alice");
+        ForwardContract soldA = closed(save("30", "Closed", "alice"), "carol");
+        ForwardContract soldUnbought = save("20", "Closed", "alice");
+        ForwardContract boughtB = closed(save(null, "Closed", "carol"), "alice");
+        closed(save("10", "Closed", "bob"), "carol");
+        ForwardContract boughtC = closed(save("25", "Closed", "dave"), "alice");
+
+        assertThat(walk(Listing.HISTORY, "alice", null, 2))
+                .containsExactly(boughtA.getId(), soldA.getId(), soldUnbought.getId(),
+                        boughtB.getId(), boughtC.getId());
+        assertThat(walk(Listing.HISTORY, "alice", "price", 2))
+                .containsExactly(soldUnbought.getId(), boughtC.getId(), soldA.getId(),
+                        boughtA.getId(), boughtB.getId());
+        assertThat(listingService.list(Listing.HISTORY, "alice", null, 2, null, true).totalElements())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSortAndUnknownSort() {
+        save("10", "Available", "alice");
+        save("20", "Available", "alice");
+        String cursor = listingService.list(Listing.AVAILABLE, null, null, 1, "price", false).nextCursor();
+
+        assertThatThrownBy(() -> listingService.list(Listing.AVAILABLE, null, cursor, 1, "deliveryDate", false))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode())
+                        .isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> listingService.list(Listing.AVAILABLE, null, null, 1, "title", false))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    private List<Long> walk(Listing listing, String username, String sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ContractPage page = listingService.list(listing, username, cursor, size, sort, false);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(size);
+            page.content().forEach(contract -> ids.add(contract.getId()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private ForwardContract closed(ForwardContract contract, String buyer) {
+        contract.setBuyerUsername(buyer);
+        return repository.save(contract);
+    }
+
+    private ForwardContract save(String price, String status, String creator) {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Contract");
+        contract.setPrice(price != null ? new BigDecimal(price) : null);
+        contract.setStatus(status);
+        contract.setCreatorUsername(creator);
+        return repository.save(contract);
+    }
+}
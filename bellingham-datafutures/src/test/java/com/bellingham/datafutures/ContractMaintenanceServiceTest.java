@@ -0,0 +1,130 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.Notification;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.repository.NotificationRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.ContractLifecycleEvent;
+import com.bellingham.datafutures.service.ContractMaintenanceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class ContractMaintenanceServiceTest {
+
+    @Autowired
+    private ContractMaintenanceService maintenanceService;
+
+    @Autowired
+    private ForwardContractRepository contractRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private ActivityLogService activityLogService;
+
+    @AfterEach
+    void tearDown() {
+        contractRepository.deleteAllInBatch();
+        notificationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void expiresPastDeliveryContractsInChunksWithEvents() {
+        LocalDate today = LocalDate.now();
+        List<ForwardContract> contracts = new ArrayList<>();
+        for (int i = 0; i < 1_100; i++) {
+            contracts.add(contract("Available", today.minusDays(1 + i % 30), null));
+        }
+        contracts.add(contract("Available", today, null));
+        contracts.add(contract("Available", today.plusDays(3), null));
+        contracts.add(contract("Purchased", today.minusDays(2), "buyer"));
+        contracts.add(contract("Purchased", today.minusDays(5), "buyer"));
+        contracts.add(contract("Closed", today.minusDays(5), null));
+        contractRepository.saveAll(contracts);
+
+        double voided = updated("void");
+        double delivered = updated("delivered");
+        long chunks = meterRegistry.get("contract.expiry.chunk").timer().count();
+
+        maintenanceService.updateExpiredContracts();
+
+        Map<String, Long> byStatus = contractRepository.findAll().stream()
+                .collect(Collectors.groupingBy(ForwardContract::getStatus, Collectors.counting()));
+        assertThat(byStatus).containsOnly(
+                Map.entry("Void", 1_100L),
+                Map.entry("Available", 2L),
+                Map.entry("Delivered", 2L),
+                Map.entry("Closed", 1L));
+
+        assertThat(events.stream(ContractLifecycleEvent.class)
+                .filter(event -> event.type() == ContractLifecycleEvent.Type.EXPIRED)
+                .map(event -> event.contract().getId())
+                .distinct())
+                .hasSize(1_100);
+        assertThat(events.stream(ContractLifecycleEvent.class)
+                .filter(event -> event.type() == ContractLifecycleEvent.Type.DELIVERED))
+                .hasSize(2)
+                .allSatisfy(event -> assertThat(event.contract().getStatus()).isEqualTo("Delivered"));
+
+        assertThat(updated("void") - voided).isEqualTo(1_100);
+        assertThat(updated("delivered") - delivered).isEqualTo(2);
+        // Three chunks of Available (500, 500, 100) and one of Purchased.
+        assertThat(meterRegistry.get("contract.expiry.chunk").timer().count() - chunks).isEqualTo(4);
+
+        List<Notification> notifications = notificationRepository.findAll();
+        assertThat(notifications).filteredOn(n -> n.getUsername().equals("seller")).hasSize(1_100);
+        assertThat(notifications).filteredOn(n -> n.getUsername().equals("buyer")).hasSize(2);
+    }
+
+    @Test
+    void statusesAreStoredInOneSpelling() {
+        ForwardContract contract = contract(" available ", LocalDate.now().minusDays(1), null);
+        assertThat(contract.getStatus()).isEqualTo("Available");
+        contract.setStatus("PURCHASED");
+        assertThat(contract.getStatus()).isEqualTo("Purchased");
+        contract.setStatus("Custom");
+        assertThat(contract.getStatus()).isEqualTo("Custom");
+    }
+
+    private double updated(String status) {
+        return meterRegistry.get("contract.expiry.updated").tag("status", status).counter().count();
+    }
+
+    private static ForwardContract contract(String status, LocalDate deliveryDate, String buyer) {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Feed");
+        contract.setPrice(BigDecimal.TEN);
+        contract.setStatus(status);
+        contract.setDeliveryDate(deliveryDate);
+        contract.setCreatorUsername("seller");
+        contract.setBuyerUsername(buyer);
+        return contract;
+    }
+}
@@ -0,0 +1,155 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.User;
+import com.bellingham.datafutures.model.UserPermission;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.repository.NotificationRepository;
+import com.bellingham.datafutures.repository.UserRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Fires a burst of simultaneous purchases at one listing and checks that the
+ * conditional UPDATE lets exactly one through while the rest fail fast.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class ContractPurchaseConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ContractPurchaseConcurrencyTest.class);
+
+    private static final int BUYERS = 16;
+    private static final int ATTEMPTS = 2_000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ForwardContractRepository contractRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @MockBean
+    private ActivityLogService activityLogService;
+
+    private final List<User> buyers = new ArrayList<>();
+    private ForwardContract contract;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BUYERS; i++) {
+            User buyer = new User();
+            buyer.setUsername("racer-" + i);
+            buyer.setPassword("unused");
+            buyer.setPermissions(EnumSet.of(UserPermission.BUY));
+            buyers.add(userRepository.save(buyer));
+        }
+        ForwardContract listing = new ForwardContract();
+        listing.setTitle("Hot listing");
+        listing.setPrice(BigDecimal.valueOf(500));
+        listing.setStatus("Available");
+        listing.setCreatorUsername("seller");
+        contract = contractRepository.save(listing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The winning purchase notifies the seller.
+        notificationRepository.deleteAll(notificationRepository.findByUsernameOrderByTimestampDesc("seller").stream()
+                .filter(notification -> contract.getId().equals(notification.getContractId()))
+                .toList());
+        contractRepository.delete(contract);
+        userRepository.deleteAll(buyers);
+    }
+
+    @Test
+    void exactlyOneOfManyConcurrentBuyersWins() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(ATTEMPTS));
+        List<String> winners = Collections.synchronizedList(new ArrayList<>());
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            String buyer = buyers.get(i % BUYERS).getUsername();
+            futures.add(pool.submit(() -> {
+                start.await();
+                SecurityContextHolder.getContext()
+                        .setAuthentication(new UsernamePasswordAuthenticationToken(buyer, "pass", List.of()));
+                try {
+                    long begin = System.nanoTime();
+                    int status = mockMvc.perform(post("/api/contracts/{id}/buy", contract.getId())
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"signature\":\"signed-by-" + buyer + "\"}"))
+                            .andReturn().getResponse().getStatus();
+                    latencies.add(System.nanoTime() - begin);
+                    statuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+                    if (status == 200) {
+                        winners.add(buyer);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(statuses.keySet()).containsExactlyInAnyOrder(200, 409);
+        assertThat(statuses.get(200).get()).isEqualTo(1);
+        assertThat(statuses.get(409).get()).isEqualTo(ATTEMPTS - 1);
+
+        ForwardContract purchased = contractRepository.findDetailById(contract.getId()).orElseThrow();
+        assertThat(purchased.getStatus()).isEqualTo("Purchased");
+        assertThat(purchased.getBuyerUsername()).isEqualTo(winners.get(0));
+        assertThat(purchased.getBuyerSignature()).isEqualTo("signed-by-" + winners.get(0));
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        // Reported rather than asserted, so a slow build machine cannot fail it.
+        log.info("{} concurrent purchases: p99 {} ms", ATTEMPTS, TimeUnit.NANOSECONDS.toMillis(p99));
+    }
+}
@@ -1,16 +1,24 @@
 package com.bellingham.datafutures;
 
 import com.bellingham.datafutures.controller.ForwardContractController;
+import com.bellingham.datafutures.dto.ContractImportResult;
+import com.bellingham.datafutures.dto.ContractPage;
 import com.bellingham.datafutures.dto.ForwardContractCreateRequest;
 import com.bellingham.datafutures.model.ForwardContract;
 import com.bellingham.datafutures.repository.ContractActivityRepository;
 import com.bellingham.datafutures.repository.ForwardContractRepository;
 import com.bellingham.datafutures.repository.UserRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.ContractAgreementService;
+import com.bellingham.datafutures.service.ContractImportService;
+import com.bellingham.datafutures.service.ContractListingService;
+import com.bellingham.datafutures.service.ContractListingService.Listing;
+import com.bellingham.datafutures.service.ContractPurchaseService;
 import com.bellingham.datafutures.service.NotificationService;
 import com.bellingham.datafutures.service.PdfService;
 import com.bellingham.datafutures.service.MarketDataService;
 import com.bellingham.datafutures.service.MarketDataStreamService;
-import com.bellingham.datafutures.service.SavedSearchService;
+import com.bellingham.datafutures.service.PublishedSnapshot;
 import com.bellingham.datafutures.security.JwtFilter;
 import com.bellingham.datafutures.model.User;
 import com.bellingham.datafutures.model.UserPermission;
@@ -19,9 +27,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -34,10 +41,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -59,13 +67,21 @@ class ForwardContractControllerTest {
     @MockBean
     private ContractActivityRepository activityRepository;
     @MockBean
+    private ActivityLogService activityLogService;
+    @MockBean
     private NotificationService notificationService;
     @MockBean
     private MarketDataService marketDataService;
     @MockBean
     private MarketDataStreamService marketDataStreamService;
     @MockBean
-    private SavedSearchService savedSearchService;
+    private ContractListingService contractListingService;
+    @MockBean
+    private ContractAgreementService contractAgreementService;
+    @MockBean
+    private ContractPurchaseService contractPurchaseService;
+    @MockBean
+    private ContractImportService contractImportService;
     @MockBean
     private JwtFilter jwtFilter;
 
@@ -74,12 +90,34 @@ class ForwardContractControllerTest {
         ForwardContract contract = new ForwardContract();
         contract.setId(1L);
         contract.setTitle("Test Contract");
-        given(repository.findByStatus(eq("Available"), any(Pageable.class)))
-                .willReturn(new PageImpl<>(List.of(contract)));
+        given(contractListingService.list(Listing.AVAILABLE, null, "abc", 10, "price", false))
+                .willReturn(new ContractPage(List.of(contract), "next", null));
 
-        mockMvc.perform(get("/api/contracts/available"))
+        mockMvc.perform(get("/api/contracts/available")
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .param("sort", "price"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].title").value("Test Contract"));
+                .andExpect(jsonPath("$.content[0].title").value("Test Contract"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void marketSnapshotHonoursIfNoneMatch() throws Exception {
+        given(marketDataService.getSnapshot())
+                .willReturn(new PublishedSnapshot(7L, "epoch-7", "{\"sequence\":7}"));
+
+        mockMvc.perform(get("/api/contracts/market"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"epoch-7\""))
+                .andExpect(jsonPath("$.sequence").value(7));
+
+        mockMvc.perform(get("/api/contracts/market").header(HttpHeaders.IF_NONE_MATCH, "\"epoch-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/contracts/market").header(HttpHeaders.IF_NONE_MATCH, "\"epoch-6\""))
+                .andExpect(status().isOk());
     }
 
     @Test
@@ -136,7 +174,7 @@ class ForwardContractControllerTest {
         contract.setTitle("Test Contract");
         contract.setCreatorUsername("seller");
         given(repository.findById(1L)).willReturn(java.util.Optional.of(contract));
-        given(repository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(contractPurchaseService.purchase(1L, "user", "sig")).willReturn(Optional.of(contract));
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", "pass"));
         given(userRepository.findByUsername("user"))
                 .willReturn(Optional.of(userWithPermissions("user", UserPermission.BUY)));
@@ -146,7 +184,7 @@ class ForwardContractControllerTest {
                 .content("{\"signature\":\"sig\"}"))
                 .andExpect(status().isOk());
 
-        org.junit.jupiter.api.Assertions.assertEquals("sig", contract.getBuyerSignature());
+        org.mockito.Mockito.verify(contractPurchaseService).purchase(1L, "user", "sig");
         org.mockito.Mockito.verify(notificationService)
                 .notifyUser("seller", "Your contract Test Contract was purchased", 1L);
     }
@@ -159,7 +197,7 @@ class ForwardContractControllerTest {
         contract.setTitle("Second Contract");
         contract.setCreatorUsername("seller2");
         given(repository.findById(2L)).willReturn(java.util.Optional.of(contract));
-        given(repository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+        given(contractPurchaseService.purchase(2L, "buyer", null)).willReturn(Optional.of(contract));
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("buyer", "pass"));
         given(userRepository.findByUsername("buyer"))
                 .willReturn(Optional.of(userWithPermissions("buyer", UserPermission.BUY)));
@@ -168,7 +206,7 @@ class ForwardContractControllerTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        org.junit.jupiter.api.Assertions.assertNull(contract.getBuyerSignature());
+        org.mockito.Mockito.verify(contractPurchaseService).purchase(2L, "buyer", null);
         org.mockito.Mockito.verify(notificationService)
                 .notifyUser("seller2", "Your contract Second Contract was purchased", 2L);
     }
@@ -190,7 +228,7 @@ class ForwardContractControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());
 
-        org.mockito.Mockito.verify(repository, org.mockito.Mockito.never()).save(any());
+        org.mockito.Mockito.verifyNoInteractions(contractPurchaseService);
         org.mockito.Mockito.verify(notificationService, org.mockito.Mockito.never()).notifyUser(any(), any(), any());
     }
 
@@ -211,7 +249,35 @@ class ForwardContractControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isForbidden());
 
-        org.mockito.Mockito.verify(repository, org.mockito.Mockito.never()).save(any());
+        org.mockito.Mockito.verifyNoInteractions(contractPurchaseService);
+        org.mockito.Mockito.verify(notificationService, org.mockito.Mockito.never()).notifyUser(any(), any(), any());
+    }
+
+    @Test
+    void buyingContractClaimedByAnotherBuyerConflicts() throws Exception {
+        ForwardContract contract = new ForwardContract();
+        contract.setId(5L);
+        contract.setStatus("Available");
+        contract.setTitle("Hot Contract");
+        contract.setCreatorUsername("seller");
+        given(repository.findById(5L)).willReturn(java.util.Optional.of(contract));
+        given(contractPurchaseService.purchase(5L, "buyer", null)).willReturn(Optional.empty());
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("buyer", "pass"));
+        given(userRepository.findByUsername("buyer"))
+                .willReturn(Optional.of(userWithPermissions("buyer", UserPermission.BUY)));
+
+        mockMvc.perform(post("/api/contracts/5/buy")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("This contract is no longer available for purchase."));
+
+        contract.setStatus("Purchased");
+        mockMvc.perform(post("/api/contracts/5/buy")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+
+        org.mockito.Mockito.verify(contractPurchaseService, org.mockito.Mockito.times(1)).purchase(5L, "buyer", null);
         org.mockito.Mockito.verify(notificationService, org.mockito.Mockito.never()).notifyUser(any(), any(), any());
     }
 
@@ -241,6 +307,51 @@ class ForwardContractControllerTest {
         org.mockito.Mockito.verify(repository, org.mockito.Mockito.never()).save(any());
     }
 
+    @Test
+    void importPicksTheFormatFromTheContentType() throws Exception {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("seller", "pass"));
+        given(userRepository.findByUsername("seller"))
+                .willReturn(Optional.of(userWithPermissions("seller", UserPermission.SELL)));
+        ContractImportResult result = new ContractImportResult(2, 1, List.of(40L),
+                List.of(new ContractImportResult.RowError(3, "title must not be blank")));
+        given(contractImportService.importContracts(any(), any(), any(), any())).willReturn(result);
+
+        mockMvc.perform(post("/api/contracts/import")
+                        .contentType("text/csv")
+                        .content("title,price\nFeed,10\n,5\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.createdIds[0]").value(40))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+        mockMvc.perform(post("/api/contracts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Feed\"}\n"))
+                .andExpect(status().isOk());
+
+        org.mockito.Mockito.verify(contractImportService).importContracts(any(),
+                org.mockito.ArgumentMatchers.eq(ContractImportService.Format.CSV),
+                org.mockito.ArgumentMatchers.eq("seller"), any());
+        org.mockito.Mockito.verify(contractImportService).importContracts(any(),
+                org.mockito.ArgumentMatchers.eq(ContractImportService.Format.NDJSON),
+                org.mockito.ArgumentMatchers.eq("seller"), any());
+    }
+
+    @Test
+    void importWithoutSellPermissionIsForbidden() throws Exception {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("seller", "pass"));
+        given(userRepository.findByUsername("seller"))
+                .willReturn(Optional.of(userWithPermissions("seller")));
+
+        mockMvc.perform(post("/api/contracts/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Feed\"}\n"))
+                .andExpect(status().isForbidden());
+
+        org.mockito.Mockito.verifyNoInteractions(contractImportService);
+    }
+
     private User userWithPermissions(String username, UserPermission... permissions) {
         User user = new User();
         user.setUsername(username);
@@ -0,0 +1,155 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.model.AttestationStatus;
+import com.bellingham.datafutures.model.ContractAgreement;
+import com.bellingham.datafutures.model.DataCategoryApproval;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ContractAgreementRepository;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.ContractAgreementService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the fetch plans of the contract endpoints by counting the SQL
+ * statements each request prepares.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class ForwardContractQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ForwardContractRepository repository;
+
+    @Autowired
+    private ContractAgreementService agreementService;
+
+    @Autowired
+    private ContractAgreementRepository agreementRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ActivityLogService activityLogService;
+
+    private Statistics statistics;
+    private final List<ForwardContract> contracts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        ContractAgreement template = agreementService.intern("Standard data licence terms");
+        for (int i = 0; i < 20; i++) {
+            ForwardContract contract = new ForwardContract();
+            contract.setTitle("Contract " + i);
+            contract.setPrice(BigDecimal.valueOf(100 + i));
+            contract.setStatus("Available");
+            contract.setCreatorUsername("seller");
+            contract.setRequiredClearanceRoles(Set.of("ROLE_TRADER", "ROLE_ANALYST"));
+            contract.setDataCategoryApprovals(Set.of(approval("pii"), approval("telemetry")));
+            contract.setAgreement(template);
+            contract.setSellerSignature("data:image/png;base64,c2lnbmF0dXJl");
+            contracts.add(repository.save(contract));
+        }
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken("seller", "pass", List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        repository.deleteAll(contracts);
+        agreementRepository.deleteAll();
+    }
+
+    @Test
+    void listPageLoadsCollectionsInBatches() throws Exception {
+        long statements = statementsDuring(() -> mockMvc.perform(get("/api/contracts/available").param("size", "20"))
+                .andExpect(jsonPath("$.content.length()").value(20))
+                .andExpect(jsonPath("$.content[19].requiredClearanceRoles.length()").value(2))
+                .andExpect(jsonPath("$.content[0].agreementText").doesNotExist())
+                .andExpect(jsonPath("$.content[0].sellerSignature").doesNotExist()));
+
+        // Page query plus one batched select per collection.
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void detailViewFetchesContractWithItsCollections() throws Exception {
+        long statements = statementsDuring(() -> mockMvc.perform(get("/api/contracts/{id}", contracts.get(0).getId()))
+                .andExpect(jsonPath("$.dataCategoryApprovals.length()").value(2))
+                .andExpect(jsonPath("$.agreementText").value("Standard data licence terms"))
+                .andExpect(jsonPath("$.sellerSignature").value("data:image/png;base64,c2lnbmF0dXJl")));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void pdfLoadsAgreementWithoutCollections() throws Exception {
+        long statements = statementsDuring(() -> mockMvc.perform(get("/api/contracts/{id}/pdf", contracts.get(0).getId()))
+                .andExpect(status().isOk()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void compliancePatchLoadsTheContractInOneQuery() throws Exception {
+        long statements = statementsDuring(() -> mockMvc.perform(patch("/api/contracts/{id}/pre-trade-policy", contracts.get(0).getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"requiredRoles\":[\"ROLE_COMPLIANCE_OFFICER\"]}"))
+                .andExpect(jsonPath("$.requiredClearanceRoles.length()").value(1))
+                .andExpect(jsonPath("$.dataCategoryApprovals.length()").value(2)));
+
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        // One select, the contract update and the role collection rewrite.
+        assertThat(statements).isLessThanOrEqualTo(5);
+    }
+
+    private long statementsDuring(Request request) throws Exception {
+        statistics.clear();
+        request.perform();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private DataCategoryApproval approval(String category) {
+        DataCategoryApproval approval = new DataCategoryApproval();
+        approval.setCategory(category);
+        approval.setStatus(AttestationStatus.APPROVED);
+        return approval;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void perform() throws Exception;
+    }
+}
@@ -0,0 +1,162 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.dto.market.MarketAggregate;
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.bellingham.datafutures.service.ContractListingService;
+import com.bellingham.datafutures.service.ContractListingService.Listing;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bellingham.datafutures.ForwardContractRepositoryTest$SqlRecorder")
+@Import(ContractListingService.class)
+@ActiveProfiles("test")
+class ForwardContractRepositoryTest {
+
+    @Autowired
+    private ForwardContractRepository repository;
+
+    @Autowired
+    private ContractListingService listingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aggregateMarketSummarizesAvailableContracts() {
+        save("30", "Acme", "Available");
+        save("10", " Acme ", "Available");
+        save(null, "Globex", "Available");
+        save("20", "  ", "Available");
+        save("5", "Initech", "Purchased");
+
+        MarketAggregate aggregate = repository.aggregateMarket("Available", 2);
+
+        assertThat(aggregate.openContracts()).isEqualTo(4);
+        assertThat(aggregate.totalVolume()).isEqualByComparingTo("60");
+        assertThat(aggregate.activeSellers()).isEqualTo(2);
+        assertThat(aggregate.bestAsk()).isEqualByComparingTo("10");
+        assertThat(aggregate.tailAsk()).isEqualByComparingTo("20");
+    }
+
+    @Test
+    void aggregateMarketHandlesEmptyBook() {
+        MarketAggregate aggregate = repository.aggregateMarket("Available", 50);
+
+        assertThat(aggregate.openContracts()).isZero();
+        assertThat(aggregate.totalVolume()).isEqualByComparingTo("0");
+        assertThat(aggregate.activeSellers()).isZero();
+        assertThat(aggregate.bestAsk()).isNull();
+        assertThat(aggregate.tailAsk()).isNull();
+    }
+
+    @Test
+    void findMarketRowsByStatusProjectsListingColumns() {
+        ForwardContract saved = save("12.50", "Acme", "Available");
+        save("5", "Initech", "Purchased");
+
+        assertThat(repository.findMarketRowsByStatus("Available"))
+                .containsExactly(MarketContract.from(saved));
+    }
+
+    @Test
+    void historyBranchesSeekOnTheirOwnIndexes() {
+        for (int i = 0; i < 3; i++) {
+            saveHistory("alice", "bob");
+            saveHistory("bob", "alice");
+        }
+        for (int i = 0; i < 200; i++) {
+            saveListing("user" + (i % 20), i % 2 == 0 ? "Available" : "Purchased");
+        }
+        // Give the planner column statistics, as autovacuum does in production;
+        // without them status looks no more selective than the id range.
+        jdbcTemplate.execute("analyze");
+        String cursor = listingService.list(Listing.HISTORY, "alice", null, 2, null, false).nextCursor();
+        assertThat(cursor).isNotNull();
+
+        // Explain the statements the service issues for a later page, so the
+        // plans cover the keyset and overlap predicates exactly as generated.
+        // The parameters stay unbound; EXPLAIN only plans the query.
+        SqlRecorder.STATEMENTS.clear();
+        listingService.list(Listing.HISTORY, "alice", cursor, 2, null, false);
+        List<String> statements = List.copyOf(SqlRecorder.STATEMENTS);
+
+        List<String> bought = statements.stream()
+                .filter(sql -> where(sql).startsWith("fc1_0.buyer_username=?"))
+                .toList();
+        List<String> sold = statements.stream()
+                .filter(sql -> where(sql).startsWith("fc1_0.creator_username=?"))
+                .toList();
+        assertThat(bought).singleElement()
+                .satisfies(sql -> assertThat(where(sql)).contains("fc1_0.id>?"));
+        assertThat(sold).singleElement()
+                .satisfies(sql -> assertThat(where(sql))
+                        .contains("(fc1_0.buyer_username is null or fc1_0.buyer_username<>?)")
+                        .contains("fc1_0.id>?"));
+
+        assertThat(explain(bought.get(0))).containsIgnoringCase("idx_buyer_username_status_id");
+        assertThat(explain(sold.get(0))).containsIgnoringCase("idx_creator_username_status_id");
+    }
+
+    private static String where(String sql) {
+        int start = sql.indexOf(" where ");
+        return start < 0 ? "" : sql.substring(start + " where ".length());
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class);
+    }
+
+    private void saveHistory(String seller, String buyer) {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Contract");
+        contract.setStatus("Closed");
+        contract.setCreatorUsername(seller);
+        contract.setBuyerUsername(buyer);
+        repository.saveAndFlush(contract);
+    }
+
+    private void saveListing(String seller, String status) {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Listing");
+        contract.setStatus(status);
+        contract.setCreatorUsername(seller);
+        repository.saveAndFlush(contract);
+    }
+
+    /**
+     * Records the SQL Hibernate prepares in this test context.
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    private ForwardContract save(String price, String seller, String status) {
+        ForwardContract contract = new ForwardContract();
+        contract.setTitle("Contract");
+        contract.setPrice(price != null ? new BigDecimal(price) : null);
+        contract.setSeller(seller);
+        contract.setStatus(status);
+        return repository.saveAndFlush(contract);
+    }
+}
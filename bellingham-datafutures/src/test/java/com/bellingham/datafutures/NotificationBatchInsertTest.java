@@ -0,0 +1,83 @@
+package com.bellingham.datafutures;
+
+import com.bellingham.datafutures.model.Notification;
+import com.bellingham.datafutures.repository.NotificationRepository;
+import com.bellingham.datafutures.service.ActivityLogService;
+import com.bellingham.datafutures.service.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fans out 10k notifications and checks, by counting prepared statements,
+ * that sequence ids let Hibernate send the inserts as JDBC batches.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class NotificationBatchInsertTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationBatchInsertTest.class);
+    private static final int NOTIFICATIONS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private ActivityLogService activityLogService;
+
+    @AfterEach
+    void tearDown() {
+        notificationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void fanOutInsertsInBatches() {
+        List<Notification> notifications = new ArrayList<>(NOTIFICATIONS);
+        for (int i = 0; i < NOTIFICATIONS; i++) {
+            Notification notification = new Notification();
+            notification.setUsername("user-" + (i % 100));
+            notification.setMessage("Contract " + i + " was listed");
+            notification.setContractId((long) i);
+            notifications.add(notification);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long start = System.nanoTime();
+        notificationService.notifyUsers(notifications);
+        long elapsed = System.nanoTime() - start;
+
+        log.info("Inserted {} notifications in {} ms ({} inserts/s, {} statements)",
+                NOTIFICATIONS, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                NOTIFICATIONS * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsed, 1),
+                statistics.getPrepareStatementCount());
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(NOTIFICATIONS);
+        assertThat(notificationRepository.count()).isEqualTo(NOTIFICATIONS);
+        // One insert batch and one sequence call per block of 50, instead of
+        // a round trip per row as identity columns require.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * NOTIFICATIONS / BATCH_SIZE + 10);
+        assertThat(notifications).extracting(Notification::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+}
@@ -1,6 +1,7 @@
 package com.bellingham.datafutures;
 
 import com.bellingham.datafutures.controller.NotificationController;
+import com.bellingham.datafutures.dto.NotificationPage;
 import com.bellingham.datafutures.model.Notification;
 import com.bellingham.datafutures.service.NotificationService;
 import com.bellingham.datafutures.service.NotificationStreamService;
@@ -48,18 +49,48 @@ class NotificationControllerTest {
         n.setUsername("user");
         n.setMessage("hello");
         n.setTimestamp(LocalDateTime.now());
-        given(notificationService.getNotifications("user"))
-                .willReturn(List.of(n));
+        given(notificationService.getNotifications("user", "abc", 20))
+                .willReturn(new NotificationPage(List.of(n), "next"));
 
         try {
-            mockMvc.perform(get("/api/notifications").with(authenticatedRequest()))
+            mockMvc.perform(get("/api/notifications").param("cursor", "abc").param("limit", "20")
+                            .with(authenticatedRequest()))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$[0].message").value("hello"));
+                    .andExpect(jsonPath("$.notifications[0].message").value("hello"))
+                    .andExpect(jsonPath("$.nextCursor").value("next"));
         } finally {
             SecurityContextHolder.clearContext();
         }
     }
 
+    @Test
+    void unreadCountReturnsCounter() throws Exception {
+        given(notificationService.getUnreadCount("user")).willReturn(3L);
+
+        try {
+            mockMvc.perform(get("/api/notifications/unread-count").with(authenticatedRequest()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.unreadCount").value(3));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void markAllReadCallsService() throws Exception {
+        given(notificationService.markAllRead("user")).willReturn(4);
+
+        try {
+            mockMvc.perform(post("/api/notifications/read-all").with(authenticatedRequest()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.updated").value(4));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        verify(notificationService).markAllRead("user");
+    }
+
     @Test
     void markReadCallsService() throws Exception {
         try {
@@ -1,9 +1,11 @@
 package com.bellingham.datafutures;
 
+import com.bellingham.datafutures.dto.NotificationPage;
 import com.bellingham.datafutures.model.Notification;
 import com.bellingham.datafutures.repository.NotificationRepository;
 import com.bellingham.datafutures.service.NotificationService;
 import com.bellingham.datafutures.service.NotificationStreamService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -11,6 +13,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
@@ -20,7 +23,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
-@Import({NotificationService.class, NotificationStreamService.class})
+@Import({NotificationService.class, NotificationStreamService.class, SimpleMeterRegistry.class})
 @ActiveProfiles("test")
 class NotificationServiceTest {
 
@@ -53,6 +56,28 @@ class NotificationServiceTest {
         assertThat(n.getContractId()).isNull();
     }
 
+    @Test
+    void notifyUsersPersistsEveryNotificationAcrossChunks() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            Notification n = new Notification();
+            n.setUsername("user" + (i % 10));
+            n.setMessage("match " + i);
+            n.setContractId(7L);
+            notifications.add(n);
+        }
+
+        notificationService.notifyUsers(notifications);
+
+        List<Notification> all = notificationRepository.findAll();
+        assertThat(all).hasSize(1_200);
+        assertThat(all).allSatisfy(n -> {
+            assertThat(n.getContractId()).isEqualTo(7L);
+            assertThat(n.getTimestamp()).isNotNull();
+        });
+        assertThat(notificationRepository.findByUsernameOrderByTimestampDesc("user3")).hasSize(120);
+    }
+
     @Test
     void markReadUpdatesFlag() {
         Notification n = new Notification();
@@ -67,10 +92,67 @@ class NotificationServiceTest {
         assertThat(updated.isReadFlag()).isTrue();
     }
 
+    @Test
+    void getNotificationsPagesByKeysetNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            // Pairs of notifications share a timestamp so the id breaks the tie.
+            save("carol", "msg " + i, base.plusMinutes(i / 2));
+        }
+        save("dave", "other", base.plusHours(1));
+
+        List<String> messages = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            NotificationPage page = notificationService.getNotifications("carol", cursor, 2);
+            assertThat(page.notifications()).hasSizeLessThanOrEqualTo(2);
+            page.notifications().forEach(n -> messages.add(n.getMessage()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(messages).containsExactly("msg 4", "msg 3", "msg 2", "msg 1", "msg 0");
+    }
+
+    @Test
+    void getNotificationsRejectsMalformedCursor() {
+        assertThatThrownBy(() -> notificationService.getNotifications("carol", "not-a-cursor", 10))
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void unreadCountFollowsNotifyMarkReadAndMarkAllRead() {
+        Notification existing = save("erin", "old", LocalDateTime.now().minusDays(1));
+        assertThat(notificationService.getUnreadCount("erin")).isEqualTo(1);
+
+        notificationService.notifyUser("erin", "new");
+        notificationService.notifyUser("erin", "newer");
+        assertThat(notificationService.getUnreadCount("erin")).isEqualTo(3);
+
+        notificationService.markRead(existing.getId(), "erin");
+        notificationService.markRead(existing.getId(), "erin");
+        assertThat(notificationService.getUnreadCount("erin")).isEqualTo(2);
+
+        assertThat(notificationService.markAllRead("erin")).isEqualTo(2);
+        assertThat(notificationService.getUnreadCount("erin")).isZero();
+        assertThat(notificationRepository.countByUsernameAndReadFlagFalse("erin")).isZero();
+    }
+
     @Test
     void markReadThrowsWhenNotificationMissing() {
         assertThatThrownBy(() -> notificationService.markRead(999L, "bob"))
                 .isInstanceOf(ResponseStatusException.class)
                 .satisfies(ex -> assertThat(((ResponseStatusException) ex).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
     }
+
+    private Notification save(String username, String message, LocalDateTime timestamp) {
+        Notification n = new Notification();
+        n.setUsername(username);
+        n.setMessage(message);
+        n.setTimestamp(timestamp);
+        return notificationRepository.save(n);
+    }
 }
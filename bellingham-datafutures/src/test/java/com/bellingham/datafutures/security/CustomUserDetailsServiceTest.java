@@ -0,0 +1,97 @@
+package com.bellingham.datafutures.security;
+
+import com.bellingham.datafutures.config.JwtProperties;
+import com.bellingham.datafutures.model.User;
+import com.bellingham.datafutures.model.UserPermission;
+import com.bellingham.datafutures.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtProperties properties = new JwtProperties();
+    private final User alice = new User();
+
+    CustomUserDetailsServiceTest() {
+        alice.setUsername("alice");
+        alice.setPassword("hash");
+        alice.setPermissions(EnumSet.of(UserPermission.BUY, UserPermission.SELL));
+        given(userRepository.findByUsername("alice")).willReturn(Optional.of(alice));
+    }
+
+    @Test
+    void cachedLookupsSkipTheRepositoryUntilEvicted() {
+        CustomUserDetailsService service = new CustomUserDetailsService(userRepository, properties);
+
+        AuthenticatedUser first = service.loadCachedUser("alice");
+        AuthenticatedUser cached = service.loadCachedUser("alice");
+        for (int i = 0; i < 10; i++) {
+            assertThat(service.loadCachedUser("alice")).isSameAs(cached);
+        }
+        verify(userRepository, times(1)).findByUsername("alice");
+
+        alice.setPermissions(EnumSet.of(UserPermission.BUY));
+        service.evict("alice");
+
+        AuthenticatedUser reloaded = service.loadCachedUser("alice");
+        assertThat(reloaded.getPermissions()).containsExactly(UserPermission.BUY);
+        assertThat(reloaded.getPermissionsVersion()).isGreaterThan(first.getPermissionsVersion());
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        properties.getUserCache().setTtl(Duration.ofSeconds(60));
+        Instant start = Instant.parse("2030-01-01T00:00:00Z");
+        CustomUserDetailsService early = new CustomUserDetailsService(userRepository, properties,
+                Clock.fixed(start, ZoneOffset.UTC));
+        early.loadCachedUser("alice");
+        early.loadCachedUser("alice");
+        verify(userRepository, times(1)).findByUsername("alice");
+
+        CustomUserDetailsService late = new CustomUserDetailsService(userRepository, properties,
+                Clock.offset(Clock.fixed(start, ZoneOffset.UTC), Duration.ofSeconds(61)));
+        late.loadCachedUser("alice");
+        late.loadCachedUser("alice");
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void loginLoadsFreshDetailsAndKeepsCachedCopyIntact() {
+        CustomUserDetailsService service = new CustomUserDetailsService(userRepository, properties);
+
+        AuthenticatedUser loginCopy = service.loadUserByUsername("alice");
+        loginCopy.eraseCredentials();
+
+        assertThat(service.loadCachedUser("alice")).isNotSameAs(loginCopy);
+        assertThat(service.loadCachedUser("alice").isEnabled()).isTrue();
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void permissionsVersionOnlyMovesOnRealChanges() {
+        User user = new User();
+        long initial = user.getPermissionsVersion();
+
+        user.setPermissions(EnumSet.noneOf(UserPermission.class));
+        user.setRole("ROLE_USER");
+        assertThat(user.getPermissionsVersion()).isEqualTo(initial);
+
+        user.setPermissions(EnumSet.of(UserPermission.SELL));
+        user.setRole("ROLE_ADMIN");
+        assertThat(user.getPermissionsVersion()).isEqualTo(initial + 2);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bellingham.datafutures.security;
+
+import com.bellingham.datafutures.config.JwtProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class JwtKeyServiceTest {
+
+    private static final String SECRET_A = "dGhpc19pc19hX2xvY2FsX3Rlc3Rfc2VjcmV0X2tleV9mb3JfZGV2ZWxvcG1lbnQ=";
+    private static final String SECRET_B = "YW5vdGhlcl9sb2NhbF90ZXN0X3NlY3JldF9rZXlfZm9yX2RldmVsb3BtZW50X3VzZQ==";
+
+    private final JwtSigningKeyRepository repository = mock(JwtSigningKeyRepository.class);
+    private final List<JwtSigningKey> table = new ArrayList<>();
+    private JwtKeyService service;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.getRotation().setInitialKeyId("key-a");
+        properties.getRotation().setInitialSecret(SECRET_A);
+        service = new JwtKeyService(repository, properties);
+
+        given(repository.findByRevokedAtIsNull())
+                .willAnswer(invocation -> table.stream().filter(key -> key.getRevokedAt() == null).toList());
+        given(repository.findByActiveTrue())
+                .willAnswer(invocation -> table.stream().filter(JwtSigningKey::isActive).findFirst());
+        given(repository.findByKeyIdAndRevokedAtIsNull(any()))
+                .willAnswer(invocation -> table.stream()
+                        .filter(key -> key.getRevokedAt() == null && key.getKeyId().equals(invocation.getArgument(0)))
+                        .findFirst());
+        given(repository.save(any())).willAnswer(invocation -> {
+            JwtSigningKey key = invocation.getArgument(0);
+            if (!table.contains(key)) {
+                table.add(key);
+            }
+            return key;
+        });
+    }
+
+    @Test
+    void verificationAndSigningAreServedWithoutRepositoryCalls() {
+        service.ensureActiveKey();
+        clearInvocations(repository);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.findVerificationKey("key-a")).isPresent();
+            assertThat(service.getActiveSigningKey().keyId()).isEqualTo("key-a");
+        }
+        assertThat(service.findVerificationKey("unknown")).isEmpty();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void rotateAndRevokeRebuildTheRing() {
+        service.ensureActiveKey();
+        var original = service.getActiveSigningKey();
+
+        service.rotate("key-b", SECRET_B);
+
+        assertThat(service.getActiveSigningKey().keyId()).isEqualTo("key-b");
+        assertThat(service.findVerificationKey("key-a")).contains(original.key());
+        assertThat(service.findVerificationKey("key-b")).isPresent();
+
+        service.revoke("key-a");
+
+        assertThat(service.findVerificationKey("key-a")).isEmpty();
+        assertThat(service.findVerificationKey("key-b")).isPresent();
+    }
+
+    @Test
+    void refreshPicksUpChangesMadeElsewhere() {
+        service.ensureActiveKey();
+
+        JwtSigningKey current = table.get(0);
+        current.setActive(false);
+        current.setRevokedAt(Instant.now());
+        table.add(new JwtSigningKey("key-b", SECRET_B, true, Instant.now()));
+
+        assertThat(service.findVerificationKey("key-a")).isPresent();
+
+        service.refresh();
+
+        assertThat(service.findVerificationKey("key-a")).isEmpty();
+        assertThat(service.getActiveSigningKey().keyId()).isEqualTo("key-b");
+    }
+
+    @Test
+    void signingKeySeedsTheTableWhenRingIsEmpty() {
+        assertThat(service.findVerificationKey("key-a")).isEqualTo(Optional.empty());
+
+        assertThat(service.getActiveSigningKey().keyId()).isEqualTo("key-a");
+        assertThat(table).hasSize(1);
+        assertThat(service.findVerificationKey("key-a")).isPresent();
+    }
+}
@@ -0,0 +1,173 @@
+package com.bellingham.datafutures.security;
+
+import com.bellingham.datafutures.config.JwtProperties;
+import com.bellingham.datafutures.model.UserPermission;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtUtilTest {
+
+    private static final Key KEY = Keys.hmacShaKeyFor(
+            Decoders.BASE64.decode("dGhpc19pc19hX2xvY2FsX3Rlc3Rfc2VjcmV0X2tleV9mb3JfZGV2ZWxvcG1lbnQ="));
+
+    private static final AuthenticatedUser ALICE = user("alice", 3L);
+
+    private final JwtKeyService keyService = mock(JwtKeyService.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setExpirationMs(Duration.ofHours(1).toMillis());
+        given(keyService.getActiveSigningKey()).willReturn(new JwtKeyService.ActiveSigningKey("key-a", KEY));
+        given(keyService.findVerificationKey("key-a")).willReturn(Optional.of(KEY));
+        given(keyService.findVerificationKey("key-b")).willReturn(Optional.empty());
+        jwtUtil = new JwtUtil(properties, keyService, clock);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatVerificationIsAnsweredFromCache() {
+        String token = jwtUtil.generateToken(ALICE);
+
+        VerifiedToken first = jwtUtil.verify(token).orElseThrow();
+        VerifiedToken second = jwtUtil.verify(token).orElseThrow();
+
+        assertThat(first.username()).isEqualTo("alice");
+        assertThat(first.keyId()).isEqualTo("key-a");
+        assertThat(first.expiresAt()).isEqualTo(clock.instant().plus(Duration.ofHours(1)));
+        assertThat(first.role()).isEqualTo("ROLE_TRADER");
+        assertThat(first.permissions()).containsExactly(UserPermission.BUY, UserPermission.SELL);
+        assertThat(first.permissionsVersion()).isEqualTo(3L);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void tamperedAndUnknownKeyTokensAreRejected() {
+        String token = jwtUtil.generateToken(ALICE);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThat(jwtUtil.verify(tampered)).isEmpty();
+        assertThat(jwtUtil.verify("not-a-token")).isEmpty();
+
+        given(keyService.getActiveSigningKey()).willReturn(new JwtKeyService.ActiveSigningKey("key-b", KEY));
+        assertThat(jwtUtil.verify(jwtUtil.generateToken(ALICE))).isEmpty();
+    }
+
+    @Test
+    void cachedTokensStopVerifyingOnceExpiredOrRevoked() {
+        String expiring = jwtUtil.generateToken(ALICE);
+        assertThat(jwtUtil.verify(expiring)).isPresent();
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(jwtUtil.verify(expiring)).isEmpty();
+
+        String revoked = jwtUtil.generateToken(user("bob", 0L));
+        assertThat(jwtUtil.verify(revoked)).isPresent();
+
+        given(keyService.findVerificationKey("key-a")).willReturn(Optional.empty());
+        assertThat(jwtUtil.verify(revoked)).isEmpty();
+    }
+
+    @Test
+    void filterVerifiesTheTokenOnceAndTrustsCurrentClaims() throws Exception {
+        JwtUtil spied = spy(jwtUtil);
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        given(userDetailsService.loadCachedUser("alice")).willReturn(ALICE);
+
+        String token = jwtUtil.generateToken(ALICE);
+        authenticate(new JwtFilter(spied, userDetailsService, new JwtProperties()), token);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("alice");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_TRADER");
+        assertThat(authentication.getPrincipal()).isNotSameAs(ALICE);
+        verify(spied, times(1)).verify(token);
+    }
+
+    @Test
+    void filterUsesCurrentDetailsWhenPermissionsChangedSinceIssue() throws Exception {
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        AuthenticatedUser demoted = new AuthenticatedUser("alice", null, "ROLE_USER",
+                EnumSet.of(UserPermission.BUY), 4L);
+        given(userDetailsService.loadCachedUser("alice")).willReturn(demoted);
+
+        authenticate(new JwtFilter(jwtUtil, userDetailsService, new JwtProperties()), jwtUtil.generateToken(ALICE));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getPrincipal()).isSameAs(demoted);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+    }
+
+    private static void authenticate(JwtFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contracts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+    }
+
+    private static AuthenticatedUser user(String username, long permissionsVersion) {
+        return new AuthenticatedUser(username, null, "ROLE_TRADER",
+                EnumSet.of(UserPermission.BUY, UserPermission.SELL), permissionsVersion);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
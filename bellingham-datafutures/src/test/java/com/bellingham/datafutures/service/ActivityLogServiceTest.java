@@ -0,0 +1,141 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.ActivityProperties;
+import com.bellingham.datafutures.model.ContractActivity;
+import com.bellingham.datafutures.repository.ContractActivityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ActivityLogServiceTest {
+
+    private final ContractActivityRepository repository = mock(ContractActivityRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<ContractActivity>> batches = new CopyOnWriteArrayList<>();
+    private ActivityLogService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void writesQueuedRecordsInBoundedBatchesAndDrainsOnShutdown() {
+        captureBatches();
+        ActivityProperties properties = properties(3, 100);
+        properties.setFlushInterval(Duration.ofMillis(200));
+        service = service(properties);
+
+        for (int i = 0; i < 7; i++) {
+            service.record(activity("action " + i));
+        }
+        service.shutdown();
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(7);
+        assertThat(meterRegistry.counter("activity.log.written").count()).isEqualTo(7);
+        assertThat(service.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void failedBatchIsRetriedPerRecord() {
+        given(repository.saveAll(any())).willThrow(new IllegalStateException("constraint violation"));
+        given(repository.save(argThat(activity -> "bad".equals(activity.getAction()))))
+                .willThrow(new IllegalStateException("constraint violation"));
+        service = service(properties(10, 100));
+
+        ContractActivity good = activity("good");
+        good.setId(42L);
+        service.record(good);
+        service.record(activity("bad"));
+        service.shutdown();
+
+        verify(repository).save(good);
+        assertThat(good.getId()).isNull();
+        assertThat(meterRegistry.counter("activity.log.written").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("activity.log.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueFallsBackToWritingOnTheCaller() throws Exception {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        willAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                writerBlocked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            batches.add(copy(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        }).given(repository).saveAll(any());
+        ActivityProperties properties = properties(1, 1);
+        properties.setEnqueueTimeout(Duration.ZERO);
+        service = service(properties);
+
+        service.record(activity("in flight"));
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        service.record(activity("queued"));
+        service.record(activity("overflow"));
+
+        assertThat(batches).singleElement()
+                .satisfies(batch -> assertThat(batch).extracting(ContractActivity::getAction)
+                        .containsExactly("overflow"));
+        assertThat(meterRegistry.counter("activity.log.backpressure").count()).isEqualTo(1);
+
+        release.countDown();
+        service.shutdown();
+        assertThat(meterRegistry.counter("activity.log.written").count()).isEqualTo(3);
+    }
+
+    private ActivityLogService service(ActivityProperties properties) {
+        return new ActivityLogService(repository, mock(PlatformTransactionManager.class), properties, meterRegistry);
+    }
+
+    private ActivityProperties properties(int batchSize, int queueCapacity) {
+        ActivityProperties properties = new ActivityProperties();
+        properties.setBatchSize(batchSize);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setFlushInterval(Duration.ofMillis(20));
+        return properties;
+    }
+
+    private void captureBatches() {
+        willAnswer(invocation -> {
+            batches.add(copy(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        }).given(repository).saveAll(any());
+    }
+
+    private List<ContractActivity> copy(Iterable<ContractActivity> activities) {
+        List<ContractActivity> copy = new ArrayList<>();
+        activities.forEach(copy::add);
+        return copy;
+    }
+
+    private ContractActivity activity(String action) {
+        ContractActivity activity = new ContractActivity();
+        activity.setAction(action);
+        activity.setUsername("alice");
+        return activity;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.ActivityProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ActivityPartitionServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ActivityProperties properties = new ActivityProperties();
+    private final Clock clock = Clock.fixed(Instant.parse("2024-05-15T10:00:00Z"), ZoneOffset.UTC);
+    private final ActivityPartitionService service = new ActivityPartitionService(jdbcTemplate, properties, clock);
+
+    @Test
+    void createsUpcomingMonthsAndArchivesExpiredOnes() {
+        properties.setRetentionMonths(3);
+        properties.setArchiveTablespace("cold");
+        database("PostgreSQL", true,
+                "contract_activity_default", "contract_activity_2024_01", "contract_activity_2024_02",
+                "contract_activity_2024_03", "contract_activity_2024_05");
+
+        service.maintainPartitions();
+
+        verify(jdbcTemplate).execute("create table if not exists contract_activity_2024_06 "
+                + "partition of contract_activity for values from ('2024-06-01') to ('2024-07-01')");
+        verify(jdbcTemplate).execute("create table if not exists contract_activity_2024_07 "
+                + "partition of contract_activity for values from ('2024-07-01') to ('2024-08-01')");
+        verify(jdbcTemplate, never()).execute(
+                "alter table contract_activity detach partition contract_activity_2024_03");
+
+        var ordered = inOrder(jdbcTemplate);
+        for (String partition : List.of("contract_activity_2024_01", "contract_activity_2024_02")) {
+            ordered.verify(jdbcTemplate).execute("alter table contract_activity detach partition " + partition);
+            ordered.verify(jdbcTemplate).execute("create schema if not exists \"activity_archive\"");
+            ordered.verify(jdbcTemplate).execute("alter table " + partition + " set schema \"activity_archive\"");
+            ordered.verify(jdbcTemplate).execute(
+                    "alter table \"activity_archive\"." + partition + " set tablespace \"cold\"");
+        }
+    }
+
+    @Test
+    void skipsUnpartitionedTables() {
+        database("PostgreSQL", false);
+
+        service.maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void skipsOtherDatabases() {
+        database("H2", true);
+
+        service.maintainPartitions();
+
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), any(Object[].class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void database(String product, boolean partitioned, String... partitions) {
+        given(jdbcTemplate.execute(any(ConnectionCallback.class))).willReturn(product);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(ActivityPartitionService.TABLE)))
+                .willReturn(partitioned);
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(ActivityPartitionService.TABLE)))
+                .willReturn(List.of(partitions));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bellingham.datafutures.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutionCounterTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+    private final ExecutionCounter counter = new ExecutionCounter(clock);
+
+    @Test
+    void seedCountsOnlyExecutionsInsideTheWindow() {
+        LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+
+        counter.seed(List.of(now.minusMinutes(5), now.minusMinutes(59), now.minusMinutes(61), now.minusHours(3)));
+
+        assertThat(counter.countLastHour()).isEqualTo(2);
+        assertThat(counter.windowStart()).isEqualTo(now.minusHours(1));
+    }
+
+    @Test
+    void recordedExecutionsExpireAfterAnHour() {
+        counter.seed(List.of());
+
+        counter.record();
+        clock.advance(Duration.ofMinutes(30));
+        counter.record();
+        counter.record();
+        assertThat(counter.countLastHour()).isEqualTo(3);
+
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(counter.countLastHour()).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(counter.countLastHour()).isZero();
+    }
+
+    @Test
+    void longIdlePeriodClearsEveryBucket() {
+        counter.seed(List.of());
+        counter.record();
+
+        clock.advance(Duration.ofDays(2));
+        counter.record();
+
+        assertThat(counter.countLastHour()).isEqualTo(1);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.model.DataCategoryApproval;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a full book of {@link ForwardContract} entities against the
+ * {@link MarketContract} projection that snapshots now publish.
+ */
+class MarketContractPayloadTest {
+
+    private static final int ITERATIONS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void projectionShrinksSnapshotPayload() throws Exception {
+        List<ForwardContract> entities = entities();
+        List<MarketContract> rows = entities.stream().map(MarketContract::from).toList();
+
+        int entityBytes = objectMapper.writeValueAsBytes(entities).length;
+        int rowBytes = objectMapper.writeValueAsBytes(rows).length;
+
+        assertThat(rowBytes).isLessThan(entityBytes / 10);
+    }
+
+    @Test
+    void projectionAllocatesLessPerSerialization() throws Exception {
+        List<ForwardContract> entities = entities();
+        List<MarketContract> rows = entities.stream().map(MarketContract::from).toList();
+
+        long entityAllocation = allocatedPerSerialization(entities);
+        long rowAllocation = allocatedPerSerialization(rows);
+
+        assertThat(rowAllocation).isLessThan(entityAllocation / 4);
+    }
+
+    private long allocatedPerSerialization(Object value) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            objectMapper.writeValueAsBytes(value);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+
+    private List<ForwardContract> entities() {
+        List<ForwardContract> contracts = new ArrayList<>();
+        for (long id = 1; id <= MarketOrderBook.DEPTH; id++) {
+            ForwardContract contract = new ForwardContract();
+            contract.setId(id);
+            contract.setTitle("Contract " + id);
+            contract.setSeller("Seller " + id);
+            contract.setPrice(BigDecimal.valueOf(id));
+            contract.setDeliveryDate(LocalDate.of(2030, 1, 1));
+            contract.setDeliveryFormat("API");
+            contract.setSellerEntityType("LLC");
+            contract.setStatus("Available");
+            contract.setAgreementText("Agreement clause. ".repeat(200));
+            contract.setSellerSignature("data:image/png;base64," + "A".repeat(4000));
+            contract.setSellerAddress("1 Market Street");
+            contract.setPrimaryContactEmail("contact" + id + "@example.com");
+            contract.setRequiredClearanceRoles(Set.of("ROLE_TRADER"));
+            DataCategoryApproval approval = new DataCategoryApproval();
+            approval.setCategory("PII");
+            contract.setDataCategoryApprovals(Set.of(approval));
+            contracts.add(contract);
+        }
+        return contracts;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.MarketProperties;
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.repository.ContractActivityRepository;
+import com.bellingham.datafutures.repository.ForwardContractRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MarketDataServiceTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper().registerModule(new JavaTimeModule()));
+    private final MarketOrderBook orderBook = spy(new MarketOrderBook());
+    private final MarketDataStreamService streamService = new MarketDataStreamService(
+            objectMapper, new MarketProperties(), new SimpleMeterRegistry());
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+    private final ExecutionCounter executionCounter = new ExecutionCounter(clock);
+    private MarketDataService service;
+
+    @BeforeEach
+    void setUp() {
+        executionCounter.seed(List.of());
+        orderBook.seed(List.of(row(1L, "10")));
+        service = new MarketDataService(mock(ForwardContractRepository.class),
+                mock(ContractActivityRepository.class), streamService, orderBook, executionCounter, objectMapper);
+    }
+
+    @Test
+    void readsAndNewSubscribersReuseThePublishedSnapshot() throws Exception {
+        PublishedSnapshot first = service.getSnapshot();
+        clearInvocations(orderBook, objectMapper);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(service.getSnapshot()).isSameAs(first);
+            service.sendSnapshot(streamService.subscribe(), null);
+        }
+
+        verify(orderBook, never()).summarize();
+        verify(objectMapper, never()).writeValueAsString(any());
+        assertThat(first.json()).contains("\"id\":1");
+    }
+
+    @Test
+    void publishingReplacesSnapshotAndEtag() throws Exception {
+        PublishedSnapshot before = service.getSnapshot();
+
+        orderBook.upsert(row(2L, "20"));
+        service.publishSnapshot();
+        PublishedSnapshot after = service.getSnapshot();
+
+        assertThat(after.sequence()).isEqualTo(before.sequence() + 1);
+        assertThat(after.etag()).isNotEqualTo(before.etag()).startsWith("\"").endsWith("\"");
+        assertThat(after.json()).contains("\"id\":2").contains("\"delta\"");
+        assertThat(objectMapper.readTree(after.json()).get("sequence").asLong()).isEqualTo(after.sequence());
+        verify(orderBook, times(2)).summarize();
+    }
+
+    @Test
+    void executionsAgingOutOfTheHourMarkTheSnapshotStale() throws Exception {
+        LocalDateTime now = LocalDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+        executionCounter.seed(List.of(now.minusMinutes(59)));
+        PublishedSnapshot before = service.getSnapshot();
+        assertThat(service.isExecutionCountStale()).isFalse();
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(service.isExecutionCountStale()).isTrue();
+
+        service.publishSnapshot();
+        PublishedSnapshot after = service.getSnapshot();
+        assertThat(service.isExecutionCountStale()).isFalse();
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        assertThat(objectMapper.readTree(after.json()).at("/kpis/executionsLastHour").asLong()).isZero();
+    }
+
+    private static MarketContract row(Long id, String price) {
+        ForwardContract contract = new ForwardContract();
+        contract.setId(id);
+        contract.setPrice(new BigDecimal(price));
+        contract.setSeller("Seller " + id);
+        contract.setStatus("Available");
+        return MarketContract.from(contract);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.MarketProperties;
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.dto.market.MarketDelta;
+import com.bellingham.datafutures.dto.market.MarketKpis;
+import com.bellingham.datafutures.dto.market.MarketUpdate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MarketDataStreamServiceTest {
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 2000})
+    void broadcastSerializesUpdateOnceRegardlessOfSubscriberCount(int subscribers) throws Exception {
+        MarketDataStreamService service = service(new MarketProperties());
+        for (int i = 0; i < subscribers; i++) {
+            service.subscribe();
+        }
+
+        service.broadcast(update(1L, MarketOrderBook.DEPTH));
+
+        verify(objectMapper, times(1)).writeValueAsString(any());
+        assertThat(service.getSubscriberCount()).isEqualTo(subscribers);
+    }
+
+    @Test
+    void replayResumesFromBufferedEventIdsOnly() throws Exception {
+        MarketProperties properties = new MarketProperties();
+        properties.setReplayCapacity(2);
+        MarketDataStreamService service = service(properties);
+        SseEmitter emitter = service.subscribe();
+
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            service.broadcast(update(sequence, 1));
+        }
+
+        assertThat(service.replay(emitter, service.eventId(3), 3)).isTrue();
+        assertThat(service.replay(emitter, service.eventId(1), 3)).isTrue();
+        assertThat(service.replay(emitter, service.eventId(0), 3)).isFalse();
+        assertThat(service.replay(emitter, service.eventId(4), 3)).isFalse();
+        assertThat(service.replay(emitter, "other-epoch-2", 3)).isFalse();
+        assertThat(service.replay(emitter, null, 3)).isFalse();
+    }
+
+    @Test
+    void replayLargerThanTheSubscriberQueueFallsBackToSnapshot() throws Exception {
+        MarketProperties properties = new MarketProperties();
+        properties.setSubscriberQueueCapacity(4);
+        MarketDataStreamService service = service(properties);
+        SseEmitter emitter = service.subscribe();
+
+        for (long sequence = 1; sequence <= 10; sequence++) {
+            service.broadcast(update(sequence, 1));
+        }
+
+        assertThat(service.replay(emitter, service.eventId(5), 10)).isFalse();
+        assertThat(service.replay(emitter, service.eventId(6), 10)).isTrue();
+    }
+
+    private MarketDataStreamService service(MarketProperties properties) {
+        return new MarketDataStreamService(objectMapper, properties, new SimpleMeterRegistry());
+    }
+
+    private MarketUpdate update(long sequence, int rows) {
+        List<MarketContract> contracts = new ArrayList<>();
+        for (long id = 1; id <= rows; id++) {
+            contracts.add(new MarketContract(id, "Contract " + id, "Seller " + id, BigDecimal.valueOf(id),
+                    null, "API", null, "Available"));
+        }
+        MarketUpdate update = new MarketUpdate();
+        update.setSequence(sequence);
+        update.setInserted(contracts);
+        update.setUpdated(List.of());
+        update.setRemoved(List.of());
+        update.setKpis(MarketKpis.empty());
+        update.setDelta(MarketDelta.empty());
+        update.setGeneratedAt(Instant.now());
+        return update;
+    }
+}
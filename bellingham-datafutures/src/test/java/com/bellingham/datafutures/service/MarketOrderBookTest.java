@@ -0,0 +1,87 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.dto.market.MarketContract;
+import com.bellingham.datafutures.model.ForwardContract;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarketOrderBookTest {
+
+    private final MarketOrderBook book = new MarketOrderBook();
+
+    @Test
+    void summaryOrdersByPriceAndTracksAggregates() {
+        book.seed(rows(
+                contract(1L, "30", "Acme"),
+                contract(2L, "10", " Acme "),
+                contract(3L, null, "Globex"),
+                contract(4L, "20", "Initech")));
+
+        MarketOrderBook.Summary summary = book.summarize();
+
+        assertThat(summary.contracts()).extracting(MarketContract::id).containsExactly(2L, 4L, 1L, 3L);
+        assertThat(summary.openContracts()).isEqualTo(4);
+        assertThat(summary.totalVolume()).isEqualByComparingTo("60");
+        assertThat(summary.activeSellers()).isEqualTo(3);
+        assertThat(summary.bestAsk()).isEqualByComparingTo("10");
+        assertThat(summary.tailAsk()).isEqualByComparingTo("30");
+    }
+
+    @Test
+    void lifecycleEventsUpdateBookIncrementally() {
+        book.seed(rows(contract(1L, "30", "Acme"), contract(2L, "10", "Globex")));
+
+        ForwardContract repriced = contract(1L, "5", "Acme");
+        book.apply(new ContractLifecycleEvent(repriced, ContractLifecycleEvent.Type.UPDATED));
+
+        ForwardContract purchased = contract(2L, "10", "Globex");
+        purchased.setStatus("Purchased");
+        book.apply(new ContractLifecycleEvent(purchased, ContractLifecycleEvent.Type.PURCHASED));
+
+        MarketOrderBook.Summary summary = book.summarize();
+        assertThat(summary.contracts()).extracting(MarketContract::id).containsExactly(1L);
+        assertThat(summary.totalVolume()).isEqualByComparingTo("5");
+        assertThat(summary.activeSellers()).isEqualTo(1);
+
+        book.apply(new ContractLifecycleEvent(repriced, ContractLifecycleEvent.Type.DELETED));
+        MarketOrderBook.Summary empty = book.summarize();
+        assertThat(empty.openContracts()).isZero();
+        assertThat(empty.totalVolume()).isEqualByComparingTo("0");
+        assertThat(empty.bestAsk()).isEqualByComparingTo("0");
+        assertThat(empty.tailAsk()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void summaryIsBoundedToBookDepth() {
+        List<MarketContract> contracts = new ArrayList<>();
+        for (long id = 1; id <= MarketOrderBook.DEPTH + 25; id++) {
+            contracts.add(MarketContract.from(contract(id, String.valueOf(id), "Seller " + id)));
+        }
+        book.seed(contracts);
+
+        MarketOrderBook.Summary summary = book.summarize();
+
+        assertThat(summary.contracts()).hasSize(MarketOrderBook.DEPTH);
+        assertThat(summary.openContracts()).isEqualTo(MarketOrderBook.DEPTH + 25);
+        assertThat(summary.tailAsk()).isEqualByComparingTo(String.valueOf(MarketOrderBook.DEPTH));
+    }
+
+    private List<MarketContract> rows(ForwardContract... contracts) {
+        return Arrays.stream(contracts).map(MarketContract::from).toList();
+    }
+
+    private ForwardContract contract(Long id, String price, String seller) {
+        ForwardContract contract = new ForwardContract();
+        contract.setId(id);
+        contract.setPrice(price != null ? new BigDecimal(price) : null);
+        contract.setSeller(seller);
+        contract.setStatus("Available");
+        return contract;
+    }
+}
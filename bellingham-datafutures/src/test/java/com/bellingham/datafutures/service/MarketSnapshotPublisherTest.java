@@ -0,0 +1,62 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.config.MarketProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MarketSnapshotPublisherTest {
+
+    private final MarketDataService marketDataService = mock(MarketDataService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MarketSnapshotPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void burstOfRequestsIsCoalescedIntoSingleSnapshot() {
+        MarketProperties properties = new MarketProperties();
+        properties.setPublishWindow(Duration.ofMillis(100));
+        publisher = new MarketSnapshotPublisher(marketDataService, properties, meterRegistry);
+
+        for (int i = 0; i < 20; i++) {
+            publisher.requestPublish();
+        }
+
+        verify(marketDataService, timeout(2000).times(1)).publishSnapshot();
+        assertThat(meterRegistry.counter("market.snapshot.requested").count()).isEqualTo(20);
+        assertThat(meterRegistry.counter("market.snapshot.coalesced").count()).isEqualTo(19);
+
+        publisher.requestPublish();
+        verify(marketDataService, timeout(2000).times(2)).publishSnapshot();
+        assertThat(meterRegistry.counter("market.snapshot.emitted").count()).isEqualTo(2);
+    }
+
+    @Test
+    void republishesOnlyWhenTheExecutionWindowHasMoved() {
+        MarketProperties properties = new MarketProperties();
+        properties.setPublishWindow(Duration.ofMillis(10));
+        publisher = new MarketSnapshotPublisher(marketDataService, properties, meterRegistry);
+
+        publisher.refreshExecutionWindow();
+        assertThat(meterRegistry.counter("market.snapshot.requested").count()).isZero();
+
+        when(marketDataService.isExecutionCountStale()).thenReturn(true);
+        publisher.refreshExecutionWindow();
+        verify(marketDataService, timeout(2000).times(1)).publishSnapshot();
+    }
+}
@@ -0,0 +1,116 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.Notification;
+import com.bellingham.datafutures.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationUnreadCountTest {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+    private final NotificationService service = new NotificationService(repository,
+            mock(NotificationStreamService.class), mock(PlatformTransactionManager.class), TTL, clock);
+
+    @BeforeEach
+    void setUp() {
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setUsername("erin");
+        when(repository.findById(1L)).thenReturn(Optional.of(notification));
+    }
+
+    @Test
+    void onlyAMarkReadThatChangesARowDecrements() {
+        when(repository.countByUsernameAndReadFlagFalse("erin")).thenReturn(3L);
+        assertThat(service.getUnreadCount("erin")).isEqualTo(3);
+
+        // The second call lost the race to another request or tab.
+        when(repository.markRead(1L, "erin")).thenReturn(1, 0);
+        service.markRead(1L, "erin");
+        service.markRead(1L, "erin");
+
+        assertThat(service.getUnreadCount("erin")).isEqualTo(2);
+    }
+
+    @Test
+    void markAllReadSubtractsTheRowsItUpdated() {
+        when(repository.countByUsernameAndReadFlagFalse("erin")).thenReturn(3L);
+        assertThat(service.getUnreadCount("erin")).isEqualTo(3);
+
+        // One notification arrived after the UPDATE and must stay counted.
+        when(repository.markAllRead("erin")).thenReturn(2);
+        assertThat(service.markAllRead("erin")).isEqualTo(2);
+
+        assertThat(service.getUnreadCount("erin")).isEqualTo(1);
+    }
+
+    @Test
+    void cachedCountsAreReloadedOnceExpired() {
+        when(repository.countByUsernameAndReadFlagFalse("erin")).thenReturn(3L, 5L);
+        assertThat(service.getUnreadCount("erin")).isEqualTo(3);
+
+        clock.advance(TTL.minusSeconds(1));
+        assertThat(service.getUnreadCount("erin")).isEqualTo(3);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(service.getUnreadCount("erin")).isEqualTo(5);
+        verify(repository, times(2)).countByUsernameAndReadFlagFalse("erin");
+    }
+
+    @Test
+    void expiredCountsAreEvicted() {
+        service.getUnreadCount("erin");
+        clock.advance(TTL.minusSeconds(10));
+        service.getUnreadCount("frank");
+
+        clock.advance(Duration.ofSeconds(10));
+        service.evictExpiredUnreadCounts();
+
+        assertThat(service.cachedUnreadCounts()).isEqualTo(1);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
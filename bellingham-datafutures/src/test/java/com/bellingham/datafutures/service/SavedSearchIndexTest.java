@@ -0,0 +1,165 @@
+package com.bellingham.datafutures.service;
+
+import com.bellingham.datafutures.model.ForwardContract;
+import com.bellingham.datafutures.model.SavedSearch;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SavedSearchIndexTest {
+
+    private static final String[] WORDS = {"weather", "eat", "her", "the", "data", "at", "satellite", "Acme", "acme co"};
+    private static final String[] SELLERS = {"Acme", "ACME CO", "Globex", "Initech", null};
+
+    private final SavedSearchIndex index = new SavedSearchIndex();
+
+    @Test
+    void overlappingTermsAreAllFound() {
+        index.seed(List.of(
+                search(1L, "alice", "he", null, null, null),
+                search(2L, "alice", "she", null, null, null),
+                search(3L, "alice", "hers", null, null, null),
+                search(4L, "alice", "his", null, null, null)));
+
+        assertThat(index.match(contract("ushers", "Globex", "10", "bob")))
+                .extracting(SavedSearchIndex.Entry::id)
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void addAndRemoveKeepIndexInSync() {
+        index.seed(List.of(search(1L, "alice", null, null, "5", "15")));
+        ForwardContract contract = contract("Weather feed", "Acme", "10", "bob");
+        assertThat(index.match(contract)).extracting(SavedSearchIndex.Entry::id).containsExactly(1L);
+
+        index.add(search(2L, "carol", "weather", null, null, null));
+        index.add(search(3L, "dave", null, "acme", null, null));
+        index.remove(1L);
+
+        assertThat(index.match(contract)).extracting(SavedSearchIndex.Entry::id).containsExactly(2L, 3L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void additionsWhileSeedingAreAppliedAfterTheSnapshot() throws Exception {
+        ForwardContract contract = contract("Weather feed", "Acme", "10", "bob");
+        Thread adder = new Thread(() -> index.add(search(2L, "carol", "weather", null, null, null)));
+
+        index.seedIfNeeded(() -> {
+            adder.start();
+            while (adder.getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            // Read before the addition committed, so the snapshot lacks it.
+            return List.of(search(1L, "alice", null, null, "5", "15"));
+        });
+        adder.join();
+        index.seedIfNeeded(List::of);
+
+        assertThat(index.match(contract)).extracting(SavedSearchIndex.Entry::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void reconcilePicksUpSearchesChangedOnOtherNodes() {
+        index.seed(List.of(
+                search(1L, "alice", "weather", null, null, null),
+                search(2L, "carol", "weather", null, null, null)));
+        ForwardContract contract = contract("Weather feed", "Acme", "10", "bob");
+
+        // Another node deleted search 2 and created 51 from its own id block.
+        SavedSearch created = search(51L, "dave", "weather", null, null, null);
+        List<Set<Long>> loaded = new ArrayList<>();
+        index.reconcile(() -> List.of(1L, 51L), ids -> {
+            loaded.add(ids);
+            return List.of(created);
+        });
+
+        assertThat(loaded).containsExactly(Set.of(51L));
+        assertThat(index.match(contract)).extracting(SavedSearchIndex.Entry::id).containsExactly(1L, 51L);
+    }
+
+    @Test
+    void matchesAgreeWithExhaustiveScan() {
+        Random random = new Random(42);
+        List<SavedSearch> searches = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            String term = random.nextInt(3) == 0 ? WORDS[random.nextInt(WORDS.length)] : null;
+            String seller = random.nextInt(4) == 0 ? SELLERS[random.nextInt(SELLERS.length)] : null;
+            String min = random.nextBoolean() ? String.valueOf(random.nextInt(100)) : null;
+            String max = random.nextBoolean()
+                    ? String.valueOf((min != null ? Integer.parseInt(min) : 0) + random.nextInt(100))
+                    : null;
+            searches.add(search(id, "user" + random.nextInt(50), term, seller, min, max));
+        }
+        index.seed(searches);
+
+        for (int i = 0; i < 500; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            String price = random.nextInt(10) == 0 ? null : String.valueOf(random.nextInt(220) - 10);
+            ForwardContract contract = contract(title, SELLERS[random.nextInt(SELLERS.length)], price,
+                    "user" + random.nextInt(50));
+
+            List<Long> expected = searches.stream()
+                    .filter(search -> exhaustiveMatch(search, contract))
+                    .map(SavedSearch::getId)
+                    .toList();
+            assertThat(index.match(contract)).extracting(SavedSearchIndex.Entry::id).isEqualTo(expected);
+        }
+    }
+
+    // Mirrors the per-search predicate SavedSearchService used before the index.
+    private boolean exhaustiveMatch(SavedSearch savedSearch, ForwardContract contract) {
+        if (savedSearch.getUsername().equalsIgnoreCase(contract.getCreatorUsername())) {
+            return false;
+        }
+        BigDecimal price = contract.getPrice();
+        if (savedSearch.getMinPrice() != null
+                && (price == null || price.compareTo(savedSearch.getMinPrice()) < 0)) {
+            return false;
+        }
+        if (savedSearch.getMaxPrice() != null
+                && (price == null || price.compareTo(savedSearch.getMaxPrice()) > 0)) {
+            return false;
+        }
+        if (savedSearch.getSeller() != null
+                && (contract.getSeller() == null || !contract.getSeller().equalsIgnoreCase(savedSearch.getSeller()))) {
+            return false;
+        }
+        if (savedSearch.getSearchTerm() != null) {
+            String term = savedSearch.getSearchTerm().toLowerCase();
+            String title = contract.getTitle() != null ? contract.getTitle().toLowerCase() : "";
+            String seller = contract.getSeller() != null ? contract.getSeller().toLowerCase() : "";
+            return title.contains(term) || seller.contains(term);
+        }
+        return true;
+    }
+
+    private SavedSearch search(Long id, String username, String term, String seller, String min, String max) {
+        SavedSearch search = new SavedSearch();
+        search.setId(id);
+        search.setUsername(username);
+        search.setName("Search " + id);
+        search.setSearchTerm(term);
+        search.setSeller(seller);
+        search.setMinPrice(min != null ? new BigDecimal(min) : null);
+        search.setMaxPrice(max != null ? new BigDecimal(max) : null);
+        return search;
+    }
+
+    private ForwardContract contract(String title, String seller, String price, String creator) {
+        ForwardContract contract = new ForwardContract();
+        contract.setId(99L);
+        contract.setTitle(title);
+        contract.setSeller(seller);
+        contract.setPrice(price != null ? new BigDecimal(price) : null);
+        contract.setCreatorUsername(creator);
+        contract.setStatus("Available");
+        return contract;
+    }
+}
@@ -0,0 +1,94 @@
+package com.bellingham.datafutures.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseSubscriberTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void slowSubscriberKeepsOnlyLatestFramesWithoutBlockingProducer() throws Exception {
+        BlockingEmitter emitter = new BlockingEmitter();
+        SseSubscriber subscriber = subscriber(emitter, SseSubscriber.OverflowPolicy.DROP_OLDEST, null);
+
+        subscriber.offer(SseSubscriber.Frame.json("market-update", "first"));
+        assertThat(emitter.started.await(2, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 10; i++) {
+            subscriber.offer(SseSubscriber.Frame.json("market-update", "update-" + i));
+        }
+
+        assertThat(subscriber.getLag()).isEqualTo(3);
+        assertThat(subscriber.getDroppedCount()).isEqualTo(7);
+
+        emitter.release.countDown();
+        awaitDelivered(subscriber, 4);
+        assertThat(emitter.names).hasSize(4);
+        subscriber.close();
+    }
+
+    @Test
+    void overflowingNotificationQueueIsReplacedByResyncMarker() throws Exception {
+        BlockingEmitter emitter = new BlockingEmitter();
+        SseSubscriber.Frame resync = SseSubscriber.Frame.json("resync", "overflow");
+        SseSubscriber subscriber = subscriber(emitter, SseSubscriber.OverflowPolicy.RESYNC, resync);
+
+        subscriber.offer(SseSubscriber.Frame.json("notification", "first"));
+        assertThat(emitter.started.await(2, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 4; i++) {
+            subscriber.offer(SseSubscriber.Frame.json("notification", "n-" + i));
+        }
+
+        assertThat(subscriber.getDroppedCount()).isEqualTo(3);
+        assertThat(subscriber.getLag()).isEqualTo(2);
+
+        emitter.release.countDown();
+        awaitDelivered(subscriber, 3);
+        assertThat(emitter.names).containsExactly("notification", "resync", "notification");
+        subscriber.close();
+    }
+
+    private SseSubscriber subscriber(SseEmitter emitter, SseSubscriber.OverflowPolicy policy,
+                                     SseSubscriber.Frame resync) {
+        return new SseSubscriber(emitter, 3, policy, resync,
+                meterRegistry.summary("lag"), meterRegistry.counter("dropped"))
+                .start("sse-test", () -> { });
+    }
+
+    private void awaitDelivered(SseSubscriber subscriber, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (subscriber.getDeliveredCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscriber.getDeliveredCount()).isEqualTo(expected);
+    }
+
+    private static final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            started.countDown();
+            try {
+                release.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+            String event = builder.build().iterator().next().getData().toString();
+            names.add(event.substring("event:".length(), event.indexOf('\n')));
+        }
+    }
+}
@@ -223,7 +223,7 @@ const formatDate = (value) => {
 };
 
 const ContractDetailsPanel = ({
-    contract,
+    contract: selectedContract,
     onClose,
     inline = false,
     inlineWidth = "w-full max-w-md",
@@ -231,6 +231,41 @@ const ContractDetailsPanel = ({
     const [visible, setVisible] = useState(false);
     const [openSections, setOpenSections] = useState({});
     const [copiedClauseId, setCopiedClauseId] = useState(null);
+    const [details, setDetails] = useState(null);
+
+    const contractId = selectedContract?.id;
+    const hasFullDetails = selectedContract?.agreementText !== undefined;
+
+    // Listing rows leave out the agreement text and signatures, so load the
+    // full contract when one is opened. Keyed on the id rather than the row,
+    // which market updates replace on every frame.
+    useEffect(() => {
+        setDetails(null);
+        if (!contractId || hasFullDetails) {
+            return undefined;
+        }
+
+        let cancelled = false;
+        api.get(`/api/contracts/${contractId}`)
+            .then((res) => {
+                if (!cancelled) {
+                    setDetails(res.data);
+                }
+            })
+            .catch((err) => {
+                console.error("Failed to load contract details", err);
+            });
+        return () => {
+            cancelled = true;
+        };
+    }, [contractId, hasFullDetails]);
+
+    const contract = useMemo(() => {
+        if (!selectedContract || !details || details.id !== selectedContract.id) {
+            return selectedContract;
+        }
+        return { ...selectedContract, ...details };
+    }, [details, selectedContract]);
 
     useEffect(() => {
         if (contract) {
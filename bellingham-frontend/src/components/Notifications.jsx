@@ -12,6 +12,8 @@ const Notifications = () => {
         loading,
         error,
         refresh: refreshNotifications,
+        loadMore,
+        hasMore,
         markRead,
         markAllRead,
         unreadCount,
@@ -110,6 +112,17 @@ const Notifications = () => {
                                 ))}
                             </ul>
                         )}
+                        {!loading && !error && hasMore && (
+                            <div className="flex justify-center">
+                                <Button
+                                    variant="ghost"
+                                    className="px-4 py-2 text-xs font-semibold uppercase tracking-[0.18em]"
+                                    onClick={loadMore}
+                                >
+                                    Load more
+                                </Button>
+                            </div>
+                        )}
                     </div>
                 </div>
             </section>
@@ -4,9 +4,11 @@ const NotificationContext = createContext({
     notifications: [],
     unreadNotifications: [],
     unreadCount: 0,
+    hasMore: false,
     loading: true,
     error: "",
     refresh: async () => {},
+    loadMore: async () => {},
     markRead: async () => {},
     markAllRead: async () => {},
 });
@@ -31,13 +31,28 @@ const NotificationProvider = ({ children }) => {
     const { isAuthenticated } = useContext(AuthContext);
 
     const [notifications, setNotifications] = useState([]);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [unreadCount, setUnreadCount] = useState(0);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState("");
     const eventSourceRef = useRef(null);
+    const notificationsRef = useRef(notifications);
+
+    useEffect(() => {
+        notificationsRef.current = notifications;
+    }, [notifications]);
 
     const handleNotificationEvent = useCallback((event) => {
         try {
             const notification = JSON.parse(event.data);
+            const known = notificationsRef.current.find(
+                (item) => item.id === notification.id
+            );
+            if (!known && !notification.readFlag) {
+                setUnreadCount((count) => count + 1);
+            } else if (known && !known.readFlag && notification.readFlag) {
+                setUnreadCount((count) => Math.max(0, count - 1));
+            }
             setNotifications((prev) => {
                 const existingIndex = prev.findIndex(
                     (item) => item.id === notification.id
@@ -73,6 +88,8 @@ const NotificationProvider = ({ children }) => {
     const fetchNotifications = useCallback(async () => {
         if (!isAuthenticated) {
             setNotifications([]);
+            setNextCursor(null);
+            setUnreadCount(0);
             setLoading(false);
             setError("");
             return;
@@ -81,8 +98,13 @@ const NotificationProvider = ({ children }) => {
         setLoading(true);
         setError("");
         try {
-            const res = await api.get(`/api/notifications`);
-            setNotifications(res.data || []);
+            const [page, unread] = await Promise.all([
+                api.get(`/api/notifications`),
+                api.get(`/api/notifications/unread-count`),
+            ]);
+            setNotifications(page.data?.notifications || []);
+            setNextCursor(page.data?.nextCursor || null);
+            setUnreadCount(unread.data?.unreadCount || 0);
         } catch (err) {
             console.error("Failed to load notifications", err);
             setError("Failed to load notifications");
@@ -91,11 +113,37 @@ const NotificationProvider = ({ children }) => {
         }
     }, [isAuthenticated]);
 
+    const loadMore = useCallback(async () => {
+        if (!isAuthenticated || !nextCursor) return;
+        try {
+            const res = await api.get(`/api/notifications`, {
+                params: { cursor: nextCursor },
+            });
+            const older = res.data?.notifications || [];
+            setNotifications((prev) => {
+                const seen = new Set(prev.map((notification) => notification.id));
+                return [
+                    ...prev,
+                    ...older.filter((notification) => !seen.has(notification.id)),
+                ];
+            });
+            setNextCursor(res.data?.nextCursor || null);
+        } catch (err) {
+            console.error("Failed to load more notifications", err);
+        }
+    }, [isAuthenticated, nextCursor]);
+
     const markRead = useCallback(
         async (id) => {
             if (!isAuthenticated || !id) return;
             try {
                 await api.post(`/api/notifications/${id}/read`);
+                const target = notificationsRef.current.find(
+                    (notification) => notification.id === id
+                );
+                if (target && !target.readFlag) {
+                    setUnreadCount((count) => Math.max(0, count - 1));
+                }
                 setNotifications((prev) =>
                     prev.map((notification) =>
                         notification.id === id
@@ -111,33 +159,29 @@ const NotificationProvider = ({ children }) => {
     );
 
     const markAllRead = useCallback(async () => {
-        if (!isAuthenticated) return;
-        const unreadIds = notifications
-            .filter((notification) => !notification.readFlag)
-            .map((notification) => notification.id);
-
-        if (!unreadIds.length) return;
+        if (!isAuthenticated || unreadCount === 0) return;
 
         try {
-            await Promise.all(
-                unreadIds.map((id) => api.post(`/api/notifications/${id}/read`))
-            );
+            await api.post(`/api/notifications/read-all`);
             setNotifications((prev) =>
                 prev.map((notification) =>
-                    unreadIds.includes(notification.id)
-                        ? { ...notification, readFlag: true }
-                        : notification
+                    notification.readFlag
+                        ? notification
+                        : { ...notification, readFlag: true }
                 )
             );
+            setUnreadCount(0);
         } catch (err) {
             console.error("Failed to mark all notifications read", err);
         }
-    }, [isAuthenticated, notifications]);
+    }, [isAuthenticated, unreadCount]);
 
     useEffect(() => {
         if (!isAuthenticated) {
             closeEventSource();
             setNotifications([]);
+            setNextCursor(null);
+            setUnreadCount(0);
             setLoading(false);
             setError("");
             return undefined;
@@ -161,7 +205,15 @@ const NotificationProvider = ({ children }) => {
             withCredentials: true,
         });
 
+        // The server sends a resync marker in place of dropped notifications
+        // when this client falls behind, and after another session marks
+        // everything read, so reload the inbox from the API.
+        const handleResyncEvent = () => {
+            fetchNotifications();
+        };
+
         eventSource.addEventListener("notification", handleNotificationEvent);
+        eventSource.addEventListener("resync", handleResyncEvent);
 
         eventSource.onerror = (err) => {
             console.error("Notification stream error", err);
@@ -174,6 +226,7 @@ const NotificationProvider = ({ children }) => {
                 "notification",
                 handleNotificationEvent
             );
+            eventSource.removeEventListener("resync", handleResyncEvent);
             eventSource.close();
             eventSourceRef.current = null;
         };
@@ -191,16 +244,16 @@ const NotificationProvider = ({ children }) => {
         [notifications]
     );
 
-    const unreadCount = unreadNotifications.length;
-
     const value = useMemo(
         () => ({
             notifications,
             unreadNotifications,
             unreadCount,
+            hasMore: Boolean(nextCursor),
             loading,
             error,
             refresh: fetchNotifications,
+            loadMore,
             markRead,
             markAllRead,
         }),
@@ -208,9 +261,11 @@ const NotificationProvider = ({ children }) => {
             notifications,
             unreadNotifications,
             unreadCount,
+            nextCursor,
             loading,
             error,
             fetchNotifications,
+            loadMore,
             markRead,
             markAllRead,
         ]
@@ -14,6 +14,45 @@ const createStreamUrl = () => {
     }
 };
 
+const compareByPrice = (left, right) => {
+    const leftPrice = left?.price ?? null;
+    const rightPrice = right?.price ?? null;
+    if (leftPrice === null && rightPrice !== null) return 1;
+    if (rightPrice === null && leftPrice !== null) return -1;
+    if (leftPrice !== null && rightPrice !== null && Number(leftPrice) !== Number(rightPrice)) {
+        return Number(leftPrice) - Number(rightPrice);
+    }
+    return (left?.id ?? 0) - (right?.id ?? 0);
+};
+
+// Applies an incremental market update on top of the current book. Returns
+// null when the update cannot be applied because earlier updates were missed.
+export const applyMarketUpdate = (book, update) => {
+    if (!book || typeof update?.sequence !== "number") {
+        return null;
+    }
+    if (update.sequence <= book.sequence) {
+        return book;
+    }
+    if (update.sequence !== book.sequence + 1) {
+        return null;
+    }
+
+    const contracts = new Map(book.contracts.map((contract) => [contract.id, contract]));
+    (update.removed || []).forEach((id) => contracts.delete(id));
+    [...(update.inserted || []), ...(update.updated || [])].forEach((contract) => {
+        contracts.set(contract.id, contract);
+    });
+
+    return {
+        contracts: [...contracts.values()].sort(compareByPrice),
+        kpis: update.kpis ?? book.kpis,
+        delta: update.delta ?? book.delta,
+        generatedAt: update.generatedAt ?? book.generatedAt,
+        sequence: update.sequence,
+    };
+};
+
 const useMarketStream = ({ enabled, onSnapshot }) => {
     const callbackRef = useRef(onSnapshot);
 
@@ -36,27 +75,83 @@ const useMarketStream = ({ enabled, onSnapshot }) => {
             return undefined;
         }
 
-        const eventSource = new EventSource(streamUrl, { withCredentials: true });
+        let book = null;
+        let eventSource = null;
+
+        const emit = () => {
+            if (callbackRef.current && book) {
+                callbackRef.current(book);
+            }
+        };
 
-        const handleEvent = (event) => {
+        const handleSnapshot = (event) => {
             try {
                 const data = JSON.parse(event.data);
-                if (callbackRef.current) {
-                    callbackRef.current(data);
-                }
+                book = {
+                    ...data,
+                    contracts: data.contracts || [],
+                    sequence: typeof data.sequence === "number" ? data.sequence : 0,
+                };
+                emit();
             } catch (error) {
                 console.error("Failed to parse market update event", error);
             }
         };
 
-        eventSource.addEventListener("market-update", handleEvent);
-        eventSource.onerror = (error) => {
-            console.error("Market data stream error", error);
+        const handleDelta = (event) => {
+            try {
+                const update = JSON.parse(event.data);
+                const next = applyMarketUpdate(book, update);
+                if (!next) {
+                    // A gap in sequence numbers, or a delta without the snapshot
+                    // it applies to, means updates were dropped; open a fresh
+                    // stream so the server sends a full snapshot.
+                    resync();
+                    return;
+                }
+                if (next !== book) {
+                    book = next;
+                    emit();
+                }
+            } catch (error) {
+                console.error("Failed to parse market delta event", error);
+            }
+        };
+
+        // Also bound to the "market-resync" marker the server sends in place of
+        // the deltas a slow client missed.
+        const resync = () => {
+            book = null;
+            connect();
+        };
+
+        const disconnect = () => {
+            if (eventSource) {
+                eventSource.removeEventListener("market-update", handleSnapshot);
+                eventSource.removeEventListener("market-delta", handleDelta);
+                eventSource.removeEventListener("market-resync", resync);
+                eventSource.close();
+                eventSource = null;
+            }
         };
 
+        // On transient errors EventSource reconnects with Last-Event-ID and the
+        // server replays only the updates this client missed.
+        function connect() {
+            disconnect();
+            eventSource = new EventSource(streamUrl, { withCredentials: true });
+            eventSource.addEventListener("market-update", handleSnapshot);
+            eventSource.addEventListener("market-delta", handleDelta);
+            eventSource.addEventListener("market-resync", resync);
+            eventSource.onerror = (error) => {
+                console.error("Market data stream error", error);
+            };
+        }
+
+        connect();
+
         return () => {
-            eventSource.removeEventListener("market-update", handleEvent);
-            eventSource.close();
+            disconnect();
         };
     }, [enabled]);
 };